@@ -0,0 +1,63 @@
+package com.kazmiruk.clearsolution.mapper;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserMapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private User user;
+
+    private UserDto userDto;
+
+    @Setup
+    public void init() {
+        user = User.builder()
+                .id(1L)
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email("dima.kazmiruk.05@gmail.com")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .address("Ukraine, Lviv")
+                .phoneNumber("0501234567")
+                .build();
+        userDto = userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserDto toDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(userDto);
+    }
+
+    @Benchmark
+    public User updateEntity() {
+        userMapper.updateEntity(user, userDto);
+        return user;
+    }
+
+}
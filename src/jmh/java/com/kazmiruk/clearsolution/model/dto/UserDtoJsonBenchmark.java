@@ -0,0 +1,57 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserDtoJsonBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private UserDto userDto;
+
+    private byte[] userJson;
+
+    @Setup
+    public void init() throws Exception {
+        userDto = UserDto.builder()
+                .id(1L)
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email("dima.kazmiruk.05@gmail.com")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .address("Ukraine, Lviv")
+                .phoneNumber("0501234567")
+                .build();
+        userJson = objectMapper.writeValueAsBytes(userDto);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(userDto);
+    }
+
+    @Benchmark
+    public UserDto deserialize() throws Exception {
+        return objectMapper.readValue(userJson, UserDto.class);
+    }
+
+}
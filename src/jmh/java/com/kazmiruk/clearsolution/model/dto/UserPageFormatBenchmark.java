@@ -0,0 +1,86 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes a page of 10k users, the size of a large {@code GET /api/v1/users} listing, in each
+ * response format, optionally gzipped like {@code server.compression} does. The payload size of every
+ * combination is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserPageFormatBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+
+    private CursorPageDto<Long> page;
+
+    @Setup
+    public void init() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> JsonMapper.builder().findAndAddModules().build();
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        List<UserDto> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            users.add(UserDto.builder()
+                    .id(id)
+                    .firstName("Dmytro")
+                    .lastName("Kazmiruk" + id % 1000)
+                    .email("user%d@gmail.com".formatted(id))
+                    .dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(id % 18_000))
+                    .address("Ukraine, Lviv, street " + id % 500)
+                    .phoneNumber("0%09d".formatted(id * 7919 % 1_000_000_000))
+                    .build());
+        }
+        page = new CursorPageDto<>(users, (long) USERS);
+        System.out.printf("%n%s%s: %,d bytes for %,d users%n", format, gzip ? "+gzip" : "", serialize().length, USERS);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            objectMapper.writeValue(out, page);
+        }
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.mapper.UserMapperImpl;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.validation.BeanUserValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the parts of {@link UserService} that run without a database: the JSON-Patch
+ * engines, Bean Validation of a {@link UserDto} and the age rule, whose cutoff date is computed
+ * once per day by {@link UserAgePolicy}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserServiceBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private UserService userService;
+
+    private JsonPatch patch;
+
+    private UserDto validUser;
+
+    private User user;
+
+    private UserDto invalidUser;
+
+    @Setup
+    public void init() throws Exception {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        UserProperties userProperties = new UserProperties();
+        userProperties.setAge(18);
+        userService = new UserService(
+                null, new UserMapperImpl(), userProperties, objectMapper, new BeanUserValidator(validator), null, null, null, null,
+                new UserAgePolicy(userProperties, Clock.systemDefaultZone())
+        );
+
+        patch = objectMapper.readValue("""
+                [
+                  {"op": "replace", "path": "/firstName", "value": "Oleh"},
+                  {"op": "replace", "path": "/address", "value": "Ukraine, Kyiv"}
+                ]""", JsonPatch.class);
+        validUser = UserDto.builder()
+                .id(1L)
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email("dima.kazmiruk.05@gmail.com")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .address("Ukraine, Lviv")
+                .phoneNumber("0501234567")
+                .build();
+        user = new UserMapperImpl().toEntity(validUser);
+        invalidUser = UserDto.builder()
+                .id(1L)
+                .firstName("D")
+                .lastName("Kazmiruk")
+                .email("not-an-email")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .phoneNumber("12345")
+                .build();
+    }
+
+    @TearDown
+    public void close() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public UserDto applyPatchToUserDto() {
+        return userService.applyPatchToUserDto(patch, validUser);
+    }
+
+    /**
+     * Full PATCH path through the generic engine: entity to DTO, DTO to tree, patch, tree to DTO,
+     * validation of the whole DTO and mapping back onto the entity.
+     */
+    @Benchmark
+    public User patchUserEntityGeneric() {
+        userService.applyGenericPatch(user, patch);
+        return user;
+    }
+
+    /**
+     * Same patch through the typed engine: compiled to field setters, only touched fields validated.
+     */
+    @Benchmark
+    public User patchUserEntityTyped() {
+        userService.patchUserEntity(user, patch);
+        return user;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> validateValidUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> validateInvalidUser() {
+        return validator.validate(invalidUser);
+    }
+
+    @Benchmark
+    public LocalDate checkUserAge() {
+        userService.checkUserAge(validUser.getDateOfBirth());
+        return validUser.getDateOfBirth();
+    }
+
+}
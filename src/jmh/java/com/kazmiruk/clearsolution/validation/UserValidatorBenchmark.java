@@ -0,0 +1,93 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code user.validation.mode} implementations on a valid and an invalid user, and on the
+ * single-property check the typed PATCH path runs per changed field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserValidatorBenchmark {
+
+    @Param({"bean", "fast"})
+    private String mode;
+
+    private ValidatorFactory validatorFactory;
+
+    private UserValidator userValidator;
+
+    private UserDto validUser;
+
+    private UserDto invalidUser;
+
+    @Setup
+    public void init() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        userValidator = switch (mode) {
+            case "bean" -> new BeanUserValidator(validatorFactory.getValidator());
+            case "fast" -> new FastUserValidator(validatorFactory.getValidator());
+            default -> throw new IllegalArgumentException(mode);
+        };
+        validUser = UserDto.builder()
+                .id(1L)
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email("dima.kazmiruk.05@gmail.com")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .address("Ukraine, Lviv")
+                .phoneNumber("0501234567")
+                .build();
+        invalidUser = UserDto.builder()
+                .id(1L)
+                .firstName("D")
+                .lastName("Kazmiruk")
+                .email("not-an-email")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .phoneNumber("12345")
+                .build();
+    }
+
+    @TearDown
+    public void close() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Map<String, String> validateValidUser() {
+        return userValidator.validate(validUser);
+    }
+
+    @Benchmark
+    public Map<String, String> validateInvalidUser() {
+        return userValidator.validate(invalidUser);
+    }
+
+    @Benchmark
+    public String validateEmail() {
+        return userValidator.validateValue("email", validUser.getEmail());
+    }
+
+}
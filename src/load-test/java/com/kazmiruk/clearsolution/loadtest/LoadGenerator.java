@@ -0,0 +1,139 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are fired at a fixed arrival rate regardless of how fast the
+ * server answers, and latency is measured from the intended send time, so a stalled server shows up
+ * in the percentiles instead of silently lowering the request rate (no coordinated omission).
+ * <p>
+ * Alongside latency it records what the load costs the process: bytes allocated per request, the peak
+ * number of platform threads and how many requests were in flight, sampled at every arrival. The
+ * client shares the JVM, so allocations include its own; compare them between modes, not absolutely.
+ */
+class LoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final UserApiClient client;
+
+    private final LoadTestOptions options;
+
+    private final Operation[] schedule;
+
+    LoadGenerator(UserApiClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+        this.schedule = buildSchedule(options.mix());
+    }
+
+    LoadReport run(String mode) throws InterruptedException {
+        drive(options.warmup(), new EnumMap<>(Operation.class), new EnumMap<>(Operation.class), new InFlight());
+
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : options.mix().keySet()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        InFlight inFlight = new InFlight();
+        long elapsed = drive(options.duration(), latencies, errors, inFlight);
+        LoadReport.Resources resources = new LoadReport.Resources(
+                threads.getTotalThreadAllocatedBytes() - allocatedBefore,
+                threads.getPeakThreadCount(),
+                inFlight.peak.get(),
+                inFlight.mean()
+        );
+        return new LoadReport(mode, options.rate(), elapsed, latencies, errors, resources);
+    }
+
+    private long drive(Duration duration, Map<Operation, Histogram> latencies, Map<Operation, AtomicLong> errors,
+                       InFlight inFlight) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            long intendedStart = intended;
+            inFlight.arrive();
+            client.httpClient()
+                    .sendAsync(operation.request(client), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - intendedStart;
+                        Histogram histogram = latencies.get(operation);
+                        if (histogram != null) {
+                            histogram.recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+                        }
+                        if ((failure != null || response.statusCode() >= 400) && errors.containsKey(operation)) {
+                            errors.get(operation).incrementAndGet();
+                        }
+                        inFlight.current.decrementAndGet();
+                    });
+        }
+        long drainDeadline = System.nanoTime() + MAX_LATENCY_NANOS;
+        while (inFlight.current.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Operation[] buildSchedule(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[total];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                schedule[index++] = weight.getKey();
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Requests sent but not yet answered; the mean is over the values seen by arriving requests.
+     */
+    private static class InFlight {
+
+        private final AtomicLong current = new AtomicLong();
+
+        private final LongAccumulator peak = new LongAccumulator(Math::max, 0);
+
+        private final LongAdder seenSum = new LongAdder();
+
+        private final LongAdder arrivals = new LongAdder();
+
+        private void arrive() {
+            long now = current.incrementAndGet();
+            peak.accumulate(now);
+            seenSum.add(now);
+            arrivals.increment();
+        }
+
+        private double mean() {
+            long count = arrivals.sum();
+            return count == 0 ? 0 : (double) seenSum.sum() / count;
+        }
+
+    }
+
+}
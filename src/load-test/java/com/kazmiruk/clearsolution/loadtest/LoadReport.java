@@ -0,0 +1,153 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms and resource usage of one run. {@link #write} stores a {@code summary.csv}, a
+ * {@code resources.csv} plus one HdrHistogram percentile distribution ({@code .hgrm}, in milliseconds)
+ * per operation, which can be plotted or diffed against the output of another commit; {@link #compare}
+ * prints that diff for the summary.
+ */
+record LoadReport(
+        String mode,
+        int rate,
+        long elapsedNanos,
+        Map<Operation, Histogram> latencies,
+        Map<Operation, AtomicLong> errors,
+        Resources resources
+) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    void print(PrintStream out) {
+        out.printf("%n== %s, %d req/s offered, %.1f s ==%n", mode, rate, elapsedNanos / 1e9);
+        out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((operation, histogram) -> out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation.label(),
+                histogram.getTotalCount(),
+                errors.get(operation).get(),
+                histogram.getTotalCount() / (elapsedNanos / 1e9),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())
+        ));
+        out.printf("%.1f KB allocated per request, %d peak threads, %d peak / %.1f mean requests in flight%n",
+                allocatedKilobytesPerRequest(), resources.peakThreads(), resources.peakInFlight(), resources.meanInFlight());
+    }
+
+    void write(Path directory) throws IOException {
+        Path modeDirectory = directory.resolve(mode);
+        Files.createDirectories(modeDirectory);
+        StringBuilder summary = new StringBuilder("op,count,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            summary.append("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n".formatted(
+                    entry.getKey().label(),
+                    histogram.getTotalCount(),
+                    errors.get(entry.getKey()).get(),
+                    histogram.getTotalCount() / (elapsedNanos / 1e9),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())
+            ));
+            try (PrintStream out = new PrintStream(modeDirectory.resolve(entry.getKey().label() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+        Files.writeString(modeDirectory.resolve("summary.csv"), summary);
+        Files.writeString(modeDirectory.resolve("resources.csv"),
+                "allocated_kb_per_request,peak_threads,peak_in_flight,mean_in_flight%n%.1f,%d,%d,%.2f%n".formatted(
+                        allocatedKilobytesPerRequest(),
+                        resources.peakThreads(),
+                        resources.peakInFlight(),
+                        resources.meanInFlight()
+                ));
+    }
+
+    /**
+     * Prints throughput and percentiles next to those of the same mode in an earlier run's report
+     * directory, with the relative change.
+     */
+    void compare(Path baselineDirectory, PrintStream out) throws IOException {
+        Path baselineSummary = baselineDirectory.resolve(mode).resolve("summary.csv");
+        if (!Files.exists(baselineSummary)) {
+            out.printf("%nNo %s to compare with%n", baselineSummary);
+            return;
+        }
+        Map<String, double[]> baseline = new HashMap<>();
+        List<String> lines = Files.readAllLines(baselineSummary);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            double[] values = new double[columns.length - 1];
+            for (int i = 1; i < columns.length; i++) {
+                values[i - 1] = Double.parseDouble(columns[i]);
+            }
+            baseline.put(columns[0], values);
+        }
+        out.printf("%n== %s compared with %s ==%n", mode, baselineDirectory);
+        out.printf("%-8s %-18s %-18s %-18s %-18s %-18s%n", "op", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        latencies.forEach((operation, histogram) -> {
+            double[] before = baseline.get(operation.label());
+            if (before == null) {
+                out.printf("%-8s not in baseline%n", operation.label());
+                return;
+            }
+            out.printf("%-8s %-18s %-18s %-18s %-18s %-18s%n",
+                    operation.label(),
+                    change(before[2], histogram.getTotalCount() / (elapsedNanos / 1e9)),
+                    change(before[3], millis(histogram.getValueAtPercentile(50))),
+                    change(before[5], millis(histogram.getValueAtPercentile(99))),
+                    change(before[6], millis(histogram.getValueAtPercentile(99.9))),
+                    change(before[1], errors.get(operation).get())
+            );
+        });
+        Path baselineResources = baselineDirectory.resolve(mode).resolve("resources.csv");
+        if (Files.exists(baselineResources)) {
+            String[] before = Files.readAllLines(baselineResources).get(1).split(",");
+            out.printf("KB/request %s, peak threads %s, mean in flight %s%n",
+                    change(Double.parseDouble(before[0]), allocatedKilobytesPerRequest()),
+                    change(Double.parseDouble(before[1]), resources.peakThreads()),
+                    change(Double.parseDouble(before[3]), resources.meanInFlight())
+            );
+        }
+    }
+
+    private double allocatedKilobytesPerRequest() {
+        long requests = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        return requests == 0 ? 0 : resources.allocatedBytes() / 1024.0 / requests;
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return "%.2f".formatted(after);
+        }
+        return "%.2f (%+.1f%%)".formatted(after, (after - before) / before * 100);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Process-wide cost of the measured phase: heap bytes allocated by all threads, the peak number of
+     * live platform threads (virtual threads are not counted) and the peak and mean number of requests
+     * in flight.
+     */
+    record Resources(long allocatedBytes, int peakThreads, long peakInFlight, double meanInFlight) {
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of {@link UserLoadTest}, all given as {@code name=value} (a leading {@code --} is allowed):
+ * <ul>
+ *     <li>{@code modes} - comma separated {@code platform}/{@code virtual} threads of the servlet stack or
+ *     {@code reactive} for WebFlux and R2DBC (needs {@code -Preactive}), default {@code platform,virtual}</li>
+ *     <li>{@code rate} - requests per second across all operations, default 500</li>
+ *     <li>{@code duration} - measured duration per mode in seconds, default 30</li>
+ *     <li>{@code warmup} - unmeasured warmup per mode in seconds, default 10</li>
+ *     <li>{@code users} - users seeded before the run, default 10000</li>
+ *     <li>{@code mix} - operation weights out of {@code get}, {@code range}, {@code search} (PostgreSQL only),
+ *     {@code create}, {@code update}, {@code patch} and {@code delete}, default
+ *     {@code get:50,range:10,create:10,update:10,patch:15,delete:5}</li>
+ *     <li>{@code database} - {@code h2}, or {@code postgres} for an embedded PostgreSQL, default {@code h2}</li>
+ *     <li>{@code output} - report directory, default {@code target/load-test}</li>
+ *     <li>{@code baseline} - report directory of an earlier run to compare with, default none</li>
+ * </ul>
+ */
+record LoadTestOptions(
+        List<String> modes,
+        int rate,
+        Duration duration,
+        Duration warmup,
+        int users,
+        Map<Operation, Integer> mix,
+        String database,
+        Path output,
+        Path baseline
+) {
+
+    private static final String DEFAULT_MIX = "get:50,range:10,create:10,update:10,patch:15,delete:5";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected name=value but got '%s'".formatted(arg));
+            }
+            values.put(option.substring(0, separator), option.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+                List.of(values.getOrDefault("modes", "platform,virtual").split(",")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                values.getOrDefault("database", "h2"),
+                Path.of(values.getOrDefault("output", "target/load-test")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null
+        );
+    }
+
+    /**
+     * Users to seed for deletes: the expected number of deletes over warmup and run with a margin
+     * for the randomness of the schedule.
+     */
+    int deletableUsers() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double expected = (double) rate * warmup.plus(duration).toSeconds() * mix.getOrDefault(Operation.DELETE, 0) / total;
+        return expected == 0 ? 0 : (int) Math.ceil(expected * 1.1) + 100;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.of(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+}
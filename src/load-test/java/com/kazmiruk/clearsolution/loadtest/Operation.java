@@ -0,0 +1,72 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import java.net.http.HttpRequest;
+
+enum Operation {
+    GET("get") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.getUserById(client.randomUserId());
+        }
+    },
+    RANGE("range") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.getUsersByBirthDateRange();
+        }
+    },
+    /**
+     * Needs the trigram search function of the PostgreSQL migrations.
+     */
+    SEARCH("search") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.searchUsers();
+        }
+    },
+    CREATE("create") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.createUser(client.nextEmail());
+        }
+    },
+    UPDATE("update") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.updateUser(client.randomUserId());
+        }
+    },
+    PATCH("patch") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.patchUser(client.randomUserId());
+        }
+    },
+    DELETE("delete") {
+        @Override
+        HttpRequest request(UserApiClient client) {
+            return client.deleteUser();
+        }
+    };
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    abstract HttpRequest request(UserApiClient client);
+
+    String label() {
+        return name;
+    }
+
+    static Operation of(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '%s'".formatted(name));
+    }
+}
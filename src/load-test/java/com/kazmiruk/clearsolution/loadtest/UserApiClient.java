@@ -0,0 +1,163 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds requests against the users API of a running instance and keeps the ids of the
+ * seeded users so read and write operations target existing rows. Deletes take users from a
+ * separate pool seeded for them, so no other operation runs into a deleted user.
+ */
+class UserApiClient {
+
+    private static final int SEED_CHUNK = 1000;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final URI apiUri;
+
+    private final String runId;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    private final Queue<Long> deletableUserIds = new ConcurrentLinkedQueue<>();
+
+    UserApiClient(URI apiUri, String runId) {
+        this.apiUri = apiUri;
+        this.runId = runId;
+    }
+
+    HttpClient httpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Seeds {@code users} users for reads and updates plus {@code deletable} users to be deleted.
+     */
+    void seed(int users, int deletable) throws IOException, InterruptedException {
+        int total = users + deletable;
+        List<Long> ids = new ArrayList<>(total);
+        for (int from = 0; from < total; from += SEED_CHUNK) {
+            List<UserDto> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(total, from + SEED_CHUNK); i++) {
+                chunk.add(user(nextEmail()));
+            }
+            HttpResponse<String> response = httpClient.send(
+                    jsonRequest(apiUri.resolve("users/bulk"), "POST", objectMapper.writeValueAsString(chunk)),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+            for (JsonNode row : objectMapper.readTree(response.body()).path("rows")) {
+                if (row.hasNonNull("id")) {
+                    ids.add(row.get("id").asLong());
+                }
+            }
+        }
+        userIds.addAll(ids.subList(0, Math.min(users, ids.size())));
+        deletableUserIds.addAll(ids.subList(Math.min(users, ids.size()), ids.size()));
+    }
+
+    Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+
+    String nextEmail() {
+        return "load-%s-%d@example.com".formatted(runId, emailSequence.incrementAndGet());
+    }
+
+    HttpRequest getUserById(Long id) {
+        return HttpRequest.newBuilder(apiUri.resolve("users/" + id)).GET().build();
+    }
+
+    HttpRequest createUser(String email) {
+        return jsonRequest(apiUri.resolve("users"), "POST", write(user(email)));
+    }
+
+    HttpRequest updateUser(Long id) {
+        return jsonRequest(apiUri.resolve("users/" + id), "PUT", write(user(nextEmail())));
+    }
+
+    HttpRequest patchUser(Long id) {
+        return HttpRequest.newBuilder(apiUri.resolve("users/" + id))
+                .header("Content-Type", "application/json-patch+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("""
+                        [{"op": "replace", "path": "/address", "value": "Ukraine, Kyiv %d"}]"""
+                        .formatted(ThreadLocalRandom.current().nextInt(1000))))
+                .build();
+    }
+
+    HttpRequest deleteUser() {
+        Long id = deletableUserIds.poll();
+        if (id == null) {
+            throw new NoSuchElementException("All users seeded for deletes are gone, seed more");
+        }
+        return HttpRequest.newBuilder(apiUri.resolve("users/" + id)).DELETE().build();
+    }
+
+    /**
+     * First page of the users born within a random year.
+     */
+    HttpRequest getUsersByBirthDateRange() {
+        LocalDate from = LocalDate.of(1950 + ThreadLocalRandom.current().nextInt(50), 1, 1);
+        return HttpRequest.newBuilder(apiUri.resolve("users/byBirthDateRange?from=%s&to=%s"
+                .formatted(from.format(DATE_FORMAT), from.plusYears(1).format(DATE_FORMAT)))).GET().build();
+    }
+
+    /**
+     * Searches for a fragment of a seeded email, matching that user and a few with similar numbers.
+     */
+    HttpRequest searchUsers() {
+        long sequence = 1 + ThreadLocalRandom.current().nextLong(emailSequence.get());
+        return HttpRequest.newBuilder(apiUri.resolve("users/search?q=%s-%d".formatted(runId, sequence))).GET().build();
+    }
+
+    private HttpRequest jsonRequest(URI uri, String method, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UserDto user(String email) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return UserDto.builder()
+                .email(email)
+                .firstName("Load")
+                .lastName("Test")
+                .dateOfBirth(LocalDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                .address("Ukraine, Lviv")
+                .phoneNumber("0%09d".formatted(random.nextInt(1_000_000_000)))
+                .build();
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.kazmiruk.clearsolution.loadtest;
+
+import com.kazmiruk.clearsolution.ClearSolutionApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Boots the application in-process (embedded H2 in PostgreSQL mode, an embedded PostgreSQL with
+ * {@code database=postgres}, or wherever {@code DB_URL} points), seeds users through the bulk endpoint
+ * and drives a fixed-rate workload over HTTP, once per mode: the servlet stack on platform or virtual
+ * threads, or the WebFlux and R2DBC variant of a {@code -Preactive} build. See {@link LoadTestOptions} for the
+ * arguments.
+ * <p>
+ * Modes share one JVM, so the first mode also pays for JIT compilation: give the warmup enough time or
+ * run one mode per invocation when comparing.
+ */
+public class UserLoadTest {
+
+    private static final String REACTIVE_CONTROLLER = "com.kazmiruk.clearsolution.reactive.ReactiveUserController";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.output());
+        Files.writeString(options.output().resolve("options.txt"), String.join(" ", args) + System.lineSeparator());
+        try (EmbeddedPostgres postgres = startDatabase(options.database())) {
+            for (String mode : options.modes()) {
+                try (ConfigurableApplicationContext context = start(mode, databaseArgs(postgres, mode))) {
+                    int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                    UserApiClient client = new UserApiClient(URI.create("http://localhost:%d/api/v1/".formatted(port)), mode);
+                    client.seed(options.users(), options.deletableUsers());
+
+                    LoadReport report = new LoadGenerator(client, options).run(mode);
+                    report.print(System.out);
+                    report.write(options.output());
+                    if (options.baseline() != null) {
+                        report.compare(options.baseline(), System.out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, List<String> databaseArgs) {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ClearSolutionApplication.class);
+        switch (mode) {
+            case "platform", "virtual" -> application.profiles("loadtest")
+                    .properties("spring.threads.virtual.enabled=" + mode.equals("virtual"));
+            case "reactive" -> {
+                if (!ClassUtils.isPresent(REACTIVE_CONTROLLER, null)) {
+                    throw new IllegalStateException("Mode 'reactive' needs a build with -Preactive");
+                }
+                application.profiles("loadtest", "reactive");
+            }
+            default -> throw new IllegalArgumentException("Unknown mode '%s'".formatted(mode));
+        }
+        return application.properties("server.port=0")
+                // arguments, as default properties would not override application-loadtest.yml
+                .run(databaseArgs.toArray(String[]::new));
+    }
+
+    private static EmbeddedPostgres startDatabase(String database) throws Exception {
+        return switch (database) {
+            case "h2" -> null;
+            // runs with synchronous_commit=off: commits skip the WAL flush wait of a production server
+            case "postgres" -> EmbeddedPostgres.start();
+            default -> throw new IllegalArgumentException("Unknown database '%s'".formatted(database));
+        };
+    }
+
+    /**
+     * Gives every mode a database of its own, with the schema built by the Flyway migrations like in
+     * production.
+     */
+    private static List<String> databaseArgs(EmbeddedPostgres postgres, String mode) throws SQLException {
+        if (postgres == null) {
+            return List.of();
+        }
+        String database = "load_" + mode;
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create database " + database);
+        }
+        return List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", database),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                "--spring.flyway.enabled=true",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:%d/%s".formatted(postgres.getPort(), database)
+        );
+    }
+
+}
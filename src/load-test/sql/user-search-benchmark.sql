@@ -0,0 +1,57 @@
+-- Search benchmark for GET /api/v1/users/search over a million users. Run it against a scratch
+-- database migrated by the application (V2 creates the trigram index), e.g. with psql -f.
+-- The queries mirror the SQL Hibernate generates for UserRepository.searchDtos.
+
+truncate users cascade;
+
+insert into users (id, email, first_name, last_name, date_of_birth, address, phone_number, version)
+select n,
+       'user' || n || '@' || (array ['gmail.com', 'ukr.net', 'mail.com'])[n % 3 + 1],
+       (array ['Dmytro', 'Olena', 'Andrii', 'Iryna', 'Taras', 'Oksana', 'Bohdan', 'Mariia'])[n % 8 + 1],
+       (array ['Kazmiruk', 'Shevchenko', 'Kovalenko', 'Bondarenko', 'Tkachenko', 'Melnyk'])[n % 6 + 1]
+           || substr(md5(n::text), 1, 4),
+       date '1950-01-01' + (n % 20000),
+       case when n % 4 = 0 then null else 'Kyiv, street ' || md5((n * 7)::text) end,
+       case when n % 5 = 0 then null else '0' || lpad((n * 37 % 1000000000)::text, 9, '0') end,
+       0
+from generate_series(1, 1000000) n;
+
+-- keep ids the application allocates afterwards clear of the generated ones
+select setval('users_seq', 1000000);
+
+analyze users;
+
+-- rare substring: a handful of matches
+explain (analyze, buffers)
+select id, email, first_name, last_name, date_of_birth, address, phone_number, version
+from users
+where cast(users_search_text(first_name, last_name, email, phone_number, address) as varchar) ilike '%user123456@%'
+order by word_similarity('user123456@', users_search_text(first_name, last_name, email, phone_number, address)) desc, id
+offset 0 rows fetch first 101 rows only;
+
+-- common substring: a sixth of the table matches, ranking dominates
+explain (analyze, buffers)
+select id, email, first_name, last_name, date_of_birth, address, phone_number, version
+from users
+where cast(users_search_text(first_name, last_name, email, phone_number, address) as varchar) ilike '%bondarenko%'
+order by word_similarity('bondarenko', users_search_text(first_name, last_name, email, phone_number, address)) desc, id
+offset 0 rows fetch first 101 rows only;
+
+-- the same two queries without the index
+set enable_bitmapscan = off;
+
+explain (analyze, buffers)
+select id, email, first_name, last_name, date_of_birth, address, phone_number, version
+from users
+where cast(users_search_text(first_name, last_name, email, phone_number, address) as varchar) ilike '%user123456@%'
+order by word_similarity('user123456@', users_search_text(first_name, last_name, email, phone_number, address)) desc, id
+offset 0 rows fetch first 101 rows only;
+
+explain (analyze, buffers)
+select id, email, first_name, last_name, date_of_birth, address, phone_number, version
+from users
+where cast(users_search_text(first_name, last_name, email, phone_number, address) as varchar) ilike '%bondarenko%'
+order by word_similarity('bondarenko', users_search_text(first_name, last_name, email, phone_number, address)) desc, id
+offset 0 rows fetch first 101 rows only;
+
+reset enable_bitmapscan;
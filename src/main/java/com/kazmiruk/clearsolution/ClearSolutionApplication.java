@@ -2,6 +2,9 @@ package com.kazmiruk.clearsolution;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Clock;
 
 @SpringBootApplication
 public class ClearSolutionApplication {
@@ -10,4 +13,9 @@ public class ClearSolutionApplication {
 		SpringApplication.run(ClearSolutionApplication.class, args);
 	}
 
+	@Bean
+	public Clock clock() {
+		return Clock.systemDefaultZone();
+	}
+
 }
@@ -0,0 +1,49 @@
+package com.kazmiruk.clearsolution.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Connects the instances running in one JVM, e.g. several application contexts of a test, that use
+ * the same topic. Batches are delivered synchronously on the publishing thread.
+ */
+public class LoopbackUserCacheInvalidationChannel implements UserCacheInvalidationChannel, AutoCloseable {
+
+    private static final Map<String, List<LoopbackUserCacheInvalidationChannel>> TOPICS = new ConcurrentHashMap<>();
+
+    private final String topic;
+
+    private final List<Consumer<Collection<Long>>> listeners = new CopyOnWriteArrayList<>();
+
+    public LoopbackUserCacheInvalidationChannel(String topic) {
+        this.topic = topic;
+        TOPICS.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(Collection<Long> userIds) {
+        for (LoopbackUserCacheInvalidationChannel channel : TOPICS.getOrDefault(topic, List.of())) {
+            if (channel != this) {
+                channel.listeners.forEach(listener -> listener.accept(userIds));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Collection<Long>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        TOPICS.computeIfPresent(topic, (key, channels) -> {
+            channels.remove(this);
+            return channels.isEmpty() ? null : channels;
+        });
+    }
+
+}
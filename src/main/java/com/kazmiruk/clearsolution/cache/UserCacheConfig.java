@@ -0,0 +1,81 @@
+package com.kazmiruk.clearsolution.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    public UserCacheInvalidationChannel userCacheInvalidationChannel(UserProperties userProperties) {
+        UserProperties.Cache.Invalidation invalidation = userProperties.getCache().getInvalidation();
+        return switch (invalidation.getChannel()) {
+            case NONE -> UserCacheInvalidationChannel.none();
+            case LOOPBACK -> new LoopbackUserCacheInvalidationChannel(invalidation.getTopic());
+        };
+    }
+
+    /**
+     * Turns on Hibernate's second-level and query caches, backed by Caffeine through JCache. The regions
+     * are created up front with the {@code user.cache.second-level} bounds, and Hibernate fails to start
+     * rather than create an unbounded one for a region missing here.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer userSecondLevelCacheCustomizer(UserProperties userProperties) {
+        UserProperties.Cache.SecondLevel secondLevel = userProperties.getCache().getSecondLevel();
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, secondLevel.isEnabled());
+            properties.put(AvailableSettings.USE_QUERY_CACHE, secondLevel.isEnabled());
+            if (secondLevel.isEnabled()) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, cacheManager(secondLevel));
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static CacheManager cacheManager(UserProperties.Cache.SecondLevel secondLevel) {
+        // a manager of its own, as Caffeine shares managers by URI and each context needs its own regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("user-second-level-cache:" + UUID.randomUUID()), null);
+        createCache(cacheManager, User.CACHE_REGION, secondLevel.getEntityMaximumSize(), secondLevel.getTtl());
+        createCache(cacheManager, UserRepository.QUERY_CACHE_REGION, secondLevel.getQueryMaximumSize(), secondLevel.getTtl());
+        createCache(
+                cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                secondLevel.getQueryMaximumSize(), secondLevel.getTtl()
+        );
+        // one entry per table, and a query result must never outlive the timestamp it is checked against
+        createCache(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null, null);
+        return cacheManager;
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, Long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable disassembled state, so there is nothing to gain from copying it
+        configuration.setStoreByValue(false);
+        if (maximumSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.kazmiruk.clearsolution.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Carries the ids of changed users between the instances of the service, so each one can drop them
+ * from its local caches. Implementations deliver every published batch to the subscribers of all
+ * other instances, never back to the publishing one, and should not block the publisher.
+ */
+public interface UserCacheInvalidationChannel {
+
+    void publish(Collection<Long> userIds);
+
+    void subscribe(Consumer<Collection<Long>> listener);
+
+    /**
+     * The channel of a single instance, with nobody to tell.
+     */
+    static UserCacheInvalidationChannel none() {
+        return new UserCacheInvalidationChannel() {
+            @Override
+            public void publish(Collection<Long> userIds) {
+            }
+
+            @Override
+            public void subscribe(Consumer<Collection<Long>> listener) {
+            }
+        };
+    }
+
+}
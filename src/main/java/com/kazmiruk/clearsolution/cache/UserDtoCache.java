@@ -0,0 +1,171 @@
+package com.kazmiruk.clearsolution.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of already mapped {@link UserDto}s keyed by user id.
+ * <p>
+ * Cached instances are shared between callers and must not be mutated. The first caller for a missing
+ * id registers a pending future and loads the user on its own thread, outside any cache lock, so a
+ * database round-trip never pins a virtual thread's carrier; concurrent callers for the same id wait
+ * on that future. Evictions requested inside a transaction are applied after commit and also drop a
+ * pending load, so a reader that loaded the pre-commit row can never leave it in the cache. With read
+ * replicas a reader may still load the pre-commit row from a replica after that, so evictions are
+ * repeated once {@code user.datasource.max-lag} plus one lag check have passed.
+ * <p>
+ * The ids evicted by a transaction are also published in one batch, after commit, on the
+ * {@link UserCacheInvalidationChannel}, which is how the other instances learn about the change; this
+ * happens even with the cache disabled, for the sake of their second-level caches. New users are
+ * evicted as well, as their ids are what tells the other instances to drop their cached queries.
+ */
+@Component
+public class UserDtoCache {
+
+    private final AsyncCache<Long, UserDto> cache;
+
+    private final Executor replicaLagDelayedExecutor;
+
+    private final UserCacheInvalidationChannel invalidationChannel;
+
+    public UserDtoCache(UserProperties userProperties, UserCacheInvalidationChannel invalidationChannel) {
+        UserProperties.Cache cacheProperties = userProperties.getCache();
+        UserProperties.Datasource datasourceProperties = userProperties.getDatasource();
+        this.replicaLagDelayedExecutor = datasourceProperties.getReplicas().isEmpty()
+                ? null
+                : CompletableFuture.delayedExecutor(
+                        datasourceProperties.getMaxLag().plus(datasourceProperties.getLagCheckInterval()).toMillis(),
+                        TimeUnit.MILLISECONDS
+                );
+        this.cache = cacheProperties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheProperties.getMaximumSize())
+                        .expireAfterWrite(cacheProperties.getTtl())
+                        .recordStats()
+                        .buildAsync()
+                : null;
+        this.invalidationChannel = invalidationChannel;
+        invalidationChannel.subscribe(this::invalidate);
+    }
+
+    public UserDto get(Long id, Function<Long, UserDto> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        CompletableFuture<UserDto> pending = new CompletableFuture<>();
+        CompletableFuture<UserDto> cached = cache.get(id, (key, executor) -> pending);
+        if (cached != pending) {
+            return join(cached);
+        }
+        try {
+            UserDto user = loader.apply(id);
+            pending.complete(user);
+            return user;
+        } catch (Throwable e) {
+            // failed futures are removed from the cache by Caffeine; any other outcome would leave
+            // later callers for the id waiting on the pending future forever
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #get} for loaders that return a future, such as a reactive query;
+     * callers for a missing id share the first caller's load.
+     */
+    public CompletableFuture<UserDto> getAsync(Long id, Function<Long, CompletableFuture<UserDto>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        return cache.get(id, (key, executor) -> loader.apply(key));
+    }
+
+    /**
+     * Returns the cached user without loading it, or {@code null} if it is absent or still loading.
+     */
+    public UserDto getIfPresent(Long id) {
+        if (cache == null) {
+            return null;
+        }
+        CompletableFuture<UserDto> cached = cache.getIfPresent(id);
+        return cached != null && cached.state() == Future.State.SUCCESS ? cached.resultNow() : null;
+    }
+
+    private static UserDto join(CompletableFuture<UserDto> cached) {
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the user from this cache and, through the channel, from the caches of the other instances;
+     * inside a transaction only once it commits.
+     */
+    public void evict(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(List.of(id));
+            invalidationChannel.publish(List.of(id));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> evicted = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (evicted == null) {
+            Set<Long> committed = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, committed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(committed);
+                    invalidationChannel.publish(committed);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UserDtoCache.this);
+                }
+            });
+            evicted = committed;
+        }
+        evicted.add(id);
+    }
+
+    private void invalidate(Collection<Long> ids) {
+        if (cache == null) {
+            return;
+        }
+        cache.synchronous().invalidateAll(ids);
+        if (replicaLagDelayedExecutor != null) {
+            replicaLagDelayedExecutor.execute(() -> cache.synchronous().invalidateAll(ids));
+        }
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.synchronous().stats();
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.kazmiruk.clearsolution.cache;
+
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops users changed on other instances from Hibernate's second-level cache, together with the cached
+ * results of the user queries, which may contain them. Changes made on this instance through Hibernate
+ * are applied to its caches by Hibernate itself; {@link #evict} is for those made around it, such as the
+ * R2DBC writes of the reactive variant. As in {@link UserDtoCache}, evictions are repeated once the
+ * replicas have caught up.
+ */
+@Component
+public class UserSecondLevelCacheInvalidator {
+
+    private final Cache cache;
+
+    private final Executor replicaLagDelayedExecutor;
+
+    public UserSecondLevelCacheInvalidator(
+            EntityManagerFactory entityManagerFactory,
+            UserCacheInvalidationChannel invalidationChannel,
+            UserProperties userProperties
+    ) {
+        UserProperties.Datasource datasourceProperties = userProperties.getDatasource();
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.replicaLagDelayedExecutor = datasourceProperties.getReplicas().isEmpty()
+                ? null
+                : CompletableFuture.delayedExecutor(
+                        datasourceProperties.getMaxLag().plus(datasourceProperties.getLagCheckInterval()).toMillis(),
+                        TimeUnit.MILLISECONDS
+                );
+        invalidationChannel.subscribe(this::evict);
+    }
+
+    public void evict(Collection<Long> ids) {
+        evictNow(ids);
+        if (replicaLagDelayedExecutor != null) {
+            replicaLagDelayedExecutor.execute(() -> evictNow(ids));
+        }
+    }
+
+    private void evictNow(Collection<Long> ids) {
+        ids.forEach(id -> cache.evictEntityData(User.class, id));
+        cache.evictQueryRegion(UserRepository.QUERY_CACHE_REGION);
+    }
+
+}
@@ -1,70 +1,256 @@
 package com.kazmiruk.clearsolution.controller;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.format.BinaryFormatConfig;
+import com.kazmiruk.clearsolution.idempotency.IdempotencyService;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkUpdateDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangePageDto;
 import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportRequestDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportReportDto;
+import com.kazmiruk.clearsolution.model.dto.UserSelectionDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.service.UserChangeService;
+import com.kazmiruk.clearsolution.service.UserExportService;
+import com.kazmiruk.clearsolution.service.UserPatchCoalescer;
 import com.kazmiruk.clearsolution.service.UserService;
+import com.kazmiruk.clearsolution.validation.UserValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/users")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserService userService;
 
+    private final UserPatchCoalescer userPatchCoalescer;
+
+    private final UserChangeService userChangeService;
+
+    private final UserExportService userExportService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final UserStreamLimiter userStreamLimiter;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserValidator userValidator;
+
+    /**
+     * Checks {@code @Valid} user bodies with the configured {@link UserValidator} instead of the Bean
+     * Validation engine; errors are still reported as {@code MethodArgumentNotValidException}.
+     */
+    @InitBinder("userDto")
+    public void initUserDtoBinder(WebDataBinder binder) {
+        binder.setValidator(Validator.forInstanceOf(UserDto.class, (user, errors) ->
+                userValidator.validate(user).forEach((field, message) -> errors.rejectValue(field, "invalid", message))
+        ));
+    }
+
+    /**
+     * With an {@code Idempotency-Key} the user is created at most once per key; sending the same request
+     * again with that key replays the first response.
+     */
     @PostMapping
-    public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserDto userRequest) {
+    public ResponseEntity<UserDto> createUser(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody UserDto userRequest
+    ) {
+        if (idempotencyKey == null) {
+            return doCreateUser(userRequest);
+        }
+        return idempotencyService.execute(
+                "create-user", idempotencyKey, userRequest, UserDto.class, () -> doCreateUser(userRequest)
+        );
+    }
+
+    private ResponseEntity<UserDto> doCreateUser(UserDto userRequest) {
         UserDto userResponse = userService.createUser(userRequest);
-        return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(UserEntityTag.of(userResponse.getVersion()))
+                .body(userResponse);
     }
 
-    @GetMapping
-    public ResponseEntity<Set<UserDto>> getAllUsers() {
-        Set<UserDto> userResponses = userService.getAllUsers();
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserImportReportDto> importUsers(@RequestBody List<UserDto> userRequests) {
+        UserImportReportDto report = userService.importUsers(userRequests.iterator());
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UserImportReportDto> importUsers(InputStream userRequests) throws IOException {
+        try (MappingIterator<UserDto> rows = objectMapper.readerFor(UserDto.class).readValues(userRequests)) {
+            UserImportReportDto report = userService.importUsers(new NdjsonRowIterator(rows));
+            return ResponseEntity.ok(report);
+        }
+    }
+
+    @PostMapping("/bulk-update")
+    public ResponseEntity<UserBulkResultDto> updateUsers(@Valid @RequestBody UserBulkUpdateDto request) {
+        UserBulkResultDto result = userService.updateUsers(request);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<UserBulkResultDto> deleteUsers(@RequestBody UserSelectionDto selection) {
+        UserBulkResultDto result = userService.deleteUsers(selection);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(produces = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE
+    })
+    public ResponseEntity<CursorPageDto<Long>> getAllUsers(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        CursorPageDto<Long> userResponses = userService.getAllUsers(after, limit);
         return ResponseEntity.ok(userResponses);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(WebRequest request) {
+        StreamingResponseBody body = userStreamLimiter.limit(request, outputStream -> {
+            userService.streamAllUsers(userResponse -> writeNdjsonLine(outputStream, userResponse));
+            outputStream.flush();
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @SneakyThrows
+    private void writeNdjsonLine(OutputStream outputStream, Object value) {
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
+    }
+
+    /**
+     * Starts a background export; poll the returned location until the export is completed, then
+     * download its file.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<UserExportDto> submitExport(@Valid @RequestBody UserExportRequestDto request) {
+        UserExportDto export = userExportService.submitExport(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/users/exports/" + export.id()))
+                .body(export);
+    }
+
+    @GetMapping("/exports/{id}")
+    public ResponseEntity<UserExportDto> getExport(@PathVariable UUID id) {
+        UserExportDto export = userExportService.getExport(id);
+        return ResponseEntity.ok(export);
+    }
+
+    @GetMapping("/exports/{id}/file")
+    public ResponseEntity<Resource> getExportFile(@PathVariable UUID id) {
+        Path file = userExportService.getExportFile(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/exports/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteExport(@PathVariable UUID id) {
+        userExportService.deleteExport(id);
+    }
+
+    /**
+     * With {@code If-None-Match} only the user's version is looked up; when it still matches, 304 is
+     * returned without mapping or serializing the user.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest webRequest
+    ) {
+        if (ifNoneMatch != null && webRequest.checkNotModified(UserEntityTag.of(userService.getUserVersion(id)))) {
+            // status 304 and the ETag header are already set on the response
+            return null;
+        }
         UserDto userResponse = userService.getUserById(id);
-        return ResponseEntity.ok(userResponse);
+        return ResponseEntity.ok()
+                .eTag(UserEntityTag.of(userResponse.getVersion()))
+                .body(userResponse);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<UserDto> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserDto userRequest
     ) {
-        UserDto userResponse = userService.updateUser(id, userRequest);
-        return ResponseEntity.ok(userResponse);
+        UserDto userResponse = userService.updateUser(id, userRequest, UserEntityTag.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(UserEntityTag.of(userResponse.getVersion()))
+                .body(userResponse);
     }
 
     @PatchMapping(path = "/{id}", consumes = "application/json-patch+json")
     public ResponseEntity<UserDto> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody JsonPatch userPatchBody
     ) {
-        UserDto userResponse = userService.updateUser(id, userPatchBody);
-        return ResponseEntity.ok(userResponse);
+        UserDto userResponse = userPatchCoalescer.updateUser(id, userPatchBody, UserEntityTag.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(UserEntityTag.of(userResponse.getVersion()))
+                .body(userResponse);
     }
 
     @DeleteMapping("/{id}")
@@ -75,13 +261,89 @@ public class UserController {
         userService.deleteUser(id);
     }
 
+    /**
+     * Change feed for incremental sync: returns the changes after position {@code since}. When there
+     * are none yet and {@code wait} is set, the request is held open until one arrives or the poll
+     * times out with an empty page.
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<UserChangePageDto> getChanges(
+            @RequestParam("since") long since,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "wait", defaultValue = "true") boolean wait
+    ) {
+        return wait
+                ? userChangeService.awaitChanges(since, limit)
+                : CompletableFuture.completedFuture(userChangeService.getChanges(since, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDto<Integer>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        CursorPageDto<Integer> userResponses = userService.searchUsers(query, page, limit);
+        return ResponseEntity.ok(userResponses);
+    }
+
+    @GetMapping("/birthdays")
+    public ResponseEntity<CursorPageDto<String>> getUsersByBirthdayWindow(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+            @RequestParam(value = "days", defaultValue = "7") int days,
+            @RequestParam(value = "age", required = false) Integer age,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        CursorPageDto<String> userResponses = userService.getUsersByBirthdayWindow(from, days, age, after, limit);
+        return ResponseEntity.ok(userResponses);
+    }
+
     @GetMapping("/byBirthDateRange")
-    public ResponseEntity<List<UserDto>> getUsersByBirthDateRange(
+    public ResponseEntity<CursorPageDto<String>> getUsersByBirthDateRange(
             @RequestParam("from") @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
-            @RequestParam("to") @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to
+            @RequestParam("to") @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit
     ) {
-        List<UserDto> userResponses = userService.getUsersByBirthDateRange(from, to);
+        CursorPageDto<String> userResponses = userService.getUsersByBirthDateRange(from, to, after, limit);
         return ResponseEntity.ok(userResponses);
     }
 
+    /**
+     * Yields {@code null} for a line that is valid JSON but cannot be mapped to {@link UserDto}, so it is
+     * reported as a failed row; a syntactically broken body rejects the rest of the import.
+     */
+    @RequiredArgsConstructor
+    private static class NdjsonRowIterator implements Iterator<UserDto> {
+
+        private final MappingIterator<UserDto> rows;
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return rows.hasNextValue();
+            } catch (IOException e) {
+                throw malformedBody();
+            }
+        }
+
+        @Override
+        public UserDto next() {
+            try {
+                return rows.nextValue();
+            } catch (JsonMappingException e) {
+                return null;
+            } catch (IOException e) {
+                throw malformedBody();
+            }
+        }
+
+        private BadRequestException malformedBody() {
+            return new BadRequestException(
+                    "Malformed NDJSON at line %d".formatted(rows.getCurrentLocation().getLineNr())
+            );
+        }
+    }
+
 }
@@ -0,0 +1,39 @@
+package com.kazmiruk.clearsolution.controller;
+
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags of users, which carry the user's version, and the mapping of {@code If-Match} back to
+ * that version.
+ */
+public final class UserEntityTag {
+
+    private static final Pattern STRONG_ENTITY_TAG = Pattern.compile("\"(\\d{1,18})\"");
+
+    private UserEntityTag() {
+    }
+
+    public static String of(Long version) {
+        return "\"%d\"".formatted(version);
+    }
+
+    /**
+     * Maps {@code If-Match} to the version the update must apply to: {@code null} when the header is
+     * absent or {@code *}. Only a single strong ETag as issued by this API can ever match; anything
+     * else fails the precondition.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = STRONG_ENTITY_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new PreconditionFailedException("If-Match '%s' does not match the user".formatted(ifMatch));
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+}
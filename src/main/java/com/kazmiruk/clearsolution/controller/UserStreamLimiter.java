@@ -0,0 +1,83 @@
+package com.kazmiruk.clearsolution.controller;
+
+import com.kazmiruk.clearsolution.model.exception.ServiceUnavailableException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits the NDJSON streams of all users, each of which holds a pooled connection for as long as the
+ * client takes to read it: at most {@code user.streaming.max-concurrent} at once, further ones are
+ * rejected with 503 rather than queued. A stream runs under {@code user.streaming.timeout} instead of
+ * the MVC async timeout, which is sized for long-polling the change feed.
+ */
+@Component
+@Profile("!reactive")
+public class UserStreamLimiter {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final Semaphore streams;
+
+    private final Duration timeout;
+
+    public UserStreamLimiter(UserProperties userProperties) {
+        this.streams = new Semaphore(userProperties.getStreaming().getMaxConcurrent());
+        this.timeout = userProperties.getStreaming().getTimeout();
+    }
+
+    /**
+     * Reserves a stream for the request and returns the body that gives it back once written.
+     *
+     * @throws ServiceUnavailableException if {@code max-concurrent} streams are already running
+     */
+    public StreamingResponseBody limit(WebRequest request, StreamingResponseBody body) {
+        if (!streams.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many user streams in progress", RETRY_AFTER);
+        }
+        Permit permit = new Permit();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.getAsyncWebRequest().setTimeout(timeout.toMillis());
+        // covers streams that time out or fail before the body ever runs
+        asyncManager.registerCallableInterceptor(permit, permit);
+        return outputStream -> {
+            try {
+                body.writeTo(outputStream);
+            } finally {
+                permit.release();
+            }
+        };
+    }
+
+    /**
+     * Returns the stream exactly once, whichever of the body and the end of the request comes first.
+     */
+    private class Permit implements CallableProcessingInterceptor {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                streams.release();
+            }
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            release();
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.kazmiruk.clearsolution.datasource;
+
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured {@code DataSource} once {@code user.datasource.replicas} lists a
+ * replica. Connections are fetched lazily, on the first statement of a transaction, and read-only
+ * transactions ({@code @Transactional(readOnly = true)}, which Hibernate marks on the connection) get
+ * one from a replica while everything else stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "user.datasource", name = "replicas[0].url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start")
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties dataSourceProperties,
+                                                      UserProperties userProperties) {
+        List<UserProperties.Datasource.Replica> replicas = userProperties.getDatasource().getReplicas();
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            UserProperties.Datasource.Replica replica = replicas.get(i);
+            HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword())
+                    .build();
+            pool.setPoolName("replica-" + i);
+            pool.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            pool.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            pool.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            pool.setReadOnly(true);
+            pools.add(pool);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, pools, userProperties.getDatasource());
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource,
+                                                    ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+}
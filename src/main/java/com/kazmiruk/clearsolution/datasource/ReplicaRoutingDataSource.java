@@ -0,0 +1,150 @@
+package com.kazmiruk.clearsolution.datasource;
+
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections from the replica pools in turn, skipping replicas that lag more than
+ * {@code user.datasource.max-lag} behind the primary or cannot be reached, and from the primary when
+ * no replica is usable. Lag is measured on a single background thread every
+ * {@code user.datasource.lag-check-interval}; until a replica's first check it is not used.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final UserProperties.Datasource properties;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    UserProperties.Datasource properties) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-lag")
+                .daemon()
+                .factory());
+    }
+
+    public void start() {
+        long interval = properties.getLagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.isUsable()) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    // skipped until the next check finds it reachable again
+                    replica.update(Double.NaN);
+                    log.warn("Replica {} is unavailable, falling back", replica.name(), e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Connects to the primary: the replica pools only hold connections for their configured credentials.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    void checkLag() {
+        for (Replica replica : replicas) {
+            double lag;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, properties.getLagCheckInterval().toSeconds()));
+                try (ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+                    resultSet.next();
+                    lag = resultSet.getDouble(1);
+                }
+            } catch (SQLException | RuntimeException e) {
+                lag = Double.NaN;
+            }
+            boolean wasUsable = replica.isUsable();
+            replica.update(lag);
+            if (wasUsable != replica.isUsable()) {
+                log.info("Replica {} is {} (lag {}s)", replica.name(), replica.isUsable() ? "in use" : "skipped", lag);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag", replica, Replica::lag)
+                    .description("Seconds the replica is behind the primary, NaN when it cannot be reached")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private volatile double lag = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+
+        private double lag() {
+            return lag;
+        }
+
+        private void update(double lag) {
+            this.lag = lag;
+        }
+
+        private boolean isUsable() {
+            // NaN compares false, so unreachable replicas are not usable either
+            return lag <= properties.getMaxLag().toMillis() / 1000.0;
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.kazmiruk.clearsolution.format;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Binary alternatives to JSON, chosen with {@code Accept} (and {@code Content-Type} for request bodies):
+ * CBOR ({@code application/cbor}, RFC 8949) and Smile ({@code application/x-jackson-smile}), which also
+ * writes each repeated field name once per response and refers back to it afterwards. Both carry the
+ * same fields as JSON, dates included.
+ * <p>
+ * Spring MVC registers both converters on its own once the formats are on the classpath, but with a
+ * plain mapper; these use Boot's builder so {@code spring.jackson.*} and the registered modules apply
+ * like they do to JSON.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+}
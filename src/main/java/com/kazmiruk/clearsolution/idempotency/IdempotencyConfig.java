@@ -0,0 +1,33 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(UserProperties userProperties,
+                                             ObjectProvider<IdempotencyKeyRepository> idempotencyKeyRepository,
+                                             ObjectProvider<PlatformTransactionManager> transactionManager,
+                                             Clock clock) {
+        UserProperties.Idempotency idempotency = userProperties.getIdempotency();
+        return switch (idempotency.getStore()) {
+            case MEMORY -> new MemoryIdempotencyStore(idempotency);
+            case JDBC -> {
+                JdbcIdempotencyStore store = new JdbcIdempotencyStore(
+                        idempotencyKeyRepository.getObject(), transactionManager.getObject(), clock, idempotency
+                );
+                store.start();
+                yield store;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+/**
+ * What an {@link IdempotencyStore} keeps for a key: the fingerprint of the request that claimed it and,
+ * once that request is done, its response. The status, ETag and body are {@code null} until then.
+ */
+public record IdempotencyRecord(String fingerprint, Integer status, String eTag, String body) {
+
+    static IdempotencyRecord claimed(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, null, null, null);
+    }
+
+    public boolean isInProgress() {
+        return status == null;
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.ConflictException;
+import com.kazmiruk.clearsolution.model.exception.UnprocessableEntityException;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests sent with an {@code Idempotency-Key} at most once per key and replays the recorded
+ * response to retries, marked with {@code Idempotent-Replayed: true}, without running them again.
+ * <p>
+ * Keys are scoped by operation, and a key is bound to the SHA-256 fingerprint of the request body it
+ * was first sent with; reusing it for another body is rejected with 422. Duplicates arriving on this
+ * instance while the first request still runs wait for its outcome, while a duplicate on another
+ * instance gets 409 and should retry later. A request that fails gives up its key, so it may be
+ * retried with the same key; so does, after {@code user.idempotency.lease}, one that never completed.
+ * Should that request still complete after all, it does not replace what the retry recorded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAXIMUM_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<String, InFlight> inFlights = new ConcurrentHashMap<>();
+
+    public <T> ResponseEntity<T> execute(String operation, String key, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key.isEmpty() || key.length() > MAXIMUM_KEY_LENGTH) {
+            throw new BadRequestException(
+                    "%s must be 1 to %d characters long".formatted(IDEMPOTENCY_KEY_HEADER, MAXIMUM_KEY_LENGTH)
+            );
+        }
+        String scopedKey = operation + ":" + key;
+        InFlight inFlight = new InFlight(fingerprint(request));
+        InFlight running = inFlights.putIfAbsent(scopedKey, inFlight);
+        if (running != null) {
+            checkFingerprint(key, running.fingerprint, inFlight.fingerprint);
+            return replay(join(running.record), bodyType);
+        }
+        try {
+            return executeOnce(scopedKey, key, inFlight, bodyType, action);
+        } catch (RuntimeException | Error e) {
+            inFlight.record.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.record.completeExceptionally(
+                    new IllegalStateException("Request with %s '%s' did not complete".formatted(IDEMPOTENCY_KEY_HEADER, key))
+            );
+            inFlights.remove(scopedKey, inFlight);
+        }
+    }
+
+    private <T> ResponseEntity<T> executeOnce(String scopedKey, String key, InFlight inFlight, Class<T> bodyType,
+                                              Supplier<ResponseEntity<T>> action) {
+        UUID token = UUID.randomUUID();
+        Optional<IdempotencyRecord> existing = idempotencyStore.claim(scopedKey, token, inFlight.fingerprint);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            checkFingerprint(key, record.fingerprint(), inFlight.fingerprint);
+            if (record.isInProgress()) {
+                throw new ConflictException(
+                        "Request with %s '%s' is still being processed".formatted(IDEMPOTENCY_KEY_HEADER, key)
+                );
+            }
+            inFlight.record.complete(record);
+            return replay(record, bodyType);
+        }
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (Throwable e) {
+            try {
+                idempotencyStore.release(scopedKey, token);
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        IdempotencyRecord record = new IdempotencyRecord(
+                inFlight.fingerprint,
+                response.getStatusCode().value(),
+                response.getHeaders().getETag(),
+                toJson(response.getBody())
+        );
+        if (!idempotencyStore.complete(scopedKey, token, record)) {
+            // the request has run all the same, so its response still goes to its client
+            log.warn("Request with {} '{}' outlived its lease and lost the key to another request",
+                    IDEMPOTENCY_KEY_HEADER, key);
+        }
+        inFlight.record.complete(record);
+        return response;
+    }
+
+    private static void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new UnprocessableEntityException(
+                    "%s '%s' was already used for a different request".formatted(IDEMPOTENCY_KEY_HEADER, key)
+            );
+        }
+    }
+
+    @SneakyThrows
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, Class<T> bodyType) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(record.status())
+                .header(REPLAYED_HEADER, "true");
+        if (record.eTag() != null) {
+            response.header(HttpHeaders.ETAG, record.eTag());
+        }
+        return response.body(objectMapper.readValue(record.body(), bodyType));
+    }
+
+    @SneakyThrows
+    private String toJson(Object body) {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    @SneakyThrows
+    private String fingerprint(Object request) {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    @SneakyThrows
+    private static IdempotencyRecord join(CompletableFuture<IdempotencyRecord> record) {
+        try {
+            return record.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<IdempotencyRecord> record) {
+
+        private InFlight(String fingerprint) {
+            this(fingerprint, new CompletableFuture<>());
+        }
+
+    }
+
+}
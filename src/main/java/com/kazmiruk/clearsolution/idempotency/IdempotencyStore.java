@@ -0,0 +1,34 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Responses recorded per idempotency key, each kept for {@code user.idempotency.retention}.
+ * <p>
+ * A claim is owned by the token it was made with. Once its lease has lapsed the key may be claimed by
+ * another request, and from then on only that request can complete or release it.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a request with the given fingerprint, owned by {@code token}.
+     *
+     * @return empty when the caller now holds the key, otherwise the record of whoever holds it
+     */
+    Optional<IdempotencyRecord> claim(String key, UUID token, String fingerprint);
+
+    /**
+     * Records the response of the request holding the key with {@code token}.
+     *
+     * @return {@code false} if the claim was lost to another request, whose claim is left as it is
+     */
+    boolean complete(String key, UUID token, IdempotencyRecord record);
+
+    /**
+     * Gives up the key held with {@code token}, so the request may be retried with it. A lost claim is
+     * left as it is.
+     */
+    void release(String key, UUID token);
+
+}
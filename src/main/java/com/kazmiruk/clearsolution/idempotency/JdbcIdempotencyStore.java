@@ -0,0 +1,126 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.kazmiruk.clearsolution.model.entity.IdempotencyKey;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the records in the {@code idempotency_keys} table, so a retry is recognized by whichever
+ * instance it reaches. A key is claimed by inserting its row, the primary key deciding between
+ * instances racing for it; every call runs in a transaction of its own, on the primary. A claim expires
+ * after {@code user.idempotency.lease} until its response is recorded, which keeps it for the retention.
+ * Expired rows are ignored and dropped when their key is claimed again, and purged in bulk every hour.
+ * Recording and releasing only touch the row carrying the claim's token, so a request that outlived its
+ * lease cannot overwrite or delete the claim of the request that took the key over.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore, AutoCloseable {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock;
+
+    private final Duration retention;
+
+    private final Duration lease;
+
+    private final ScheduledExecutorService scheduler;
+
+    public JdbcIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                                PlatformTransactionManager transactionManager,
+                                Clock clock,
+                                UserProperties.Idempotency properties) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        this.retention = properties.getRetention();
+        this.lease = properties.getLease();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("idempotency-purge")
+                .daemon()
+                .factory());
+    }
+
+    public void start() {
+        long interval = PURGE_INTERVAL.toMillis();
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, UUID token, String fingerprint) {
+        Instant now = clock.instant();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                idempotencyKeyRepository.deleteIfExpired(key, now);
+                idempotencyKeyRepository.insertKey(key, token, fingerprint, now.plus(lease));
+            });
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            Optional<IdempotencyKey> existing = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.findById(key)
+            );
+            // released in the meantime, so it is up for grabs again
+            return existing.isEmpty() ? claim(key, token, fingerprint) : existing.map(JdbcIdempotencyStore::toRecord);
+        }
+    }
+
+    @Override
+    public boolean complete(String key, UUID token, IdempotencyRecord record) {
+        Integer updated = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.updateResponse(
+                        key, token, record.status(), record.eTag(), record.body(), clock.instant().plus(retention)
+                )
+        );
+        return updated == 1;
+    }
+
+    @Override
+    public void release(String key, UUID token) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteKey(key, token));
+    }
+
+    void purgeExpired() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.deleteAllExpired(clock.instant())
+            );
+            log.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired idempotency keys", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static IdempotencyRecord toRecord(IdempotencyKey idempotencyKey) {
+        return new IdempotencyRecord(
+                idempotencyKey.getFingerprint(),
+                idempotencyKey.getStatus(),
+                idempotencyKey.getETag(),
+                idempotencyKey.getBody()
+        );
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the records of this instance only, in a Caffeine cache bounded by
+ * {@code user.idempotency.maximum-size}. Past that size records are dropped before their retention is
+ * up, so a late retry may then run again. Claims not completed expire after {@code user.idempotency.lease}.
+ * Each record is kept with the token of its claim, which completing and releasing must match.
+ */
+public class MemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, Claim> claims;
+
+    public MemoryIdempotencyStore(UserProperties.Idempotency properties) {
+        long leaseNanos = properties.getLease().toNanos();
+        long retentionNanos = properties.getRetention().toNanos();
+        this.claims = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new Expiry<String, Claim>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claim claim, long currentTime) {
+                        return claim.record().isInProgress() ? leaseNanos : retentionNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claim claim, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, claim, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claim claim, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, UUID token, String fingerprint) {
+        Claim existing = claims.asMap().putIfAbsent(key, new Claim(token, IdempotencyRecord.claimed(fingerprint)));
+        return Optional.ofNullable(existing).map(Claim::record);
+    }
+
+    @Override
+    public boolean complete(String key, UUID token, IdempotencyRecord record) {
+        Claim completed = new Claim(token, record);
+        return claims.asMap().computeIfPresent(key, (k, claim) -> claim.token().equals(token) ? completed : claim)
+                == completed;
+    }
+
+    @Override
+    public void release(String key, UUID token) {
+        claims.asMap().computeIfPresent(key, (k, claim) -> claim.token().equals(token) ? null : claim);
+    }
+
+    private record Claim(UUID token, IdempotencyRecord record) {
+    }
+
+}
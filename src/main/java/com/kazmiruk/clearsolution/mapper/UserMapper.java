@@ -9,10 +9,12 @@ import org.mapstruct.MappingTarget;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
 
+    @Mapping(target = "version", ignore = true)
     User toEntity(UserDto userDto);
 
     UserDto toDto(User user);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntity(@MappingTarget User userTarget, UserDto userDto);
 }
@@ -0,0 +1,51 @@
+package com.kazmiruk.clearsolution.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the JDBC statements prepared and the entities loaded by the current thread. Hibernate
+ * instantiates it as the session factory wide statement inspector and interceptor (see
+ * {@code application.yml}), so the counters are kept per thread; {@link RequestStatisticsInterceptor}
+ * resets them around every request.
+ * <p>
+ * DTO projections do not load entities, so they only show up in the statement count.
+ */
+public class HibernateRequestStatistics implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get().statements++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTS.get().entityLoads++;
+        return false;
+    }
+
+    public static long statements() {
+        return COUNTS.get().statements;
+    }
+
+    public static long entityLoads() {
+        return COUNTS.get().entityLoads;
+    }
+
+    public static void reset() {
+        COUNTS.remove();
+    }
+
+    private static class Counts {
+
+        private long statements;
+
+        private long entityLoads;
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.kazmiruk.clearsolution.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final RequestStatisticsInterceptor requestStatisticsInterceptor;
+
+    /**
+     * Backs {@code @Timed}; the timers get an {@code exception} tag holding the simple name of the
+     * thrown exception, or {@code none} on success.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestStatisticsInterceptor).addPathPatterns("/api/**");
+    }
+
+}
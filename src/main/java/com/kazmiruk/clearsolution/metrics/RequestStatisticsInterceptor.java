@@ -0,0 +1,53 @@
+package com.kazmiruk.clearsolution.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many JDBC statements and entity loads every request cost, tagged like
+ * {@code http.server.requests} by method and URI template, so an endpoint that starts issuing
+ * N+1 or otherwise extra queries stands out on the dashboard. Only work done on the request
+ * thread is counted; the body of a streaming response is written on another thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestStatisticsInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HibernateRequestStatistics.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri == null ? "UNKNOWN" : uri.toString());
+        DistributionSummary.builder("http.server.requests.jdbc.statements")
+                .description("JDBC statements prepared while handling a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(HibernateRequestStatistics.statements());
+        DistributionSummary.builder("http.server.requests.entity.loads")
+                .description("Entities loaded by Hibernate while handling a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(HibernateRequestStatistics.entityLoads());
+        HibernateRequestStatistics.reset();
+    }
+
+}
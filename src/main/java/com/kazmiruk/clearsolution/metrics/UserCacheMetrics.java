@@ -0,0 +1,67 @@
+package com.kazmiruk.clearsolution.metrics;
+
+import com.kazmiruk.clearsolution.cache.UserDtoCache;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hit ratios of the user caches since startup, one {@code user.cache.hit.ratio} gauge per cache:
+ * {@code dto} for {@link UserDtoCache}, {@code entity} and {@code query} for the second-level cache
+ * regions. A cache nobody has asked yet reports NaN; the second-level ratios need
+ * {@code hibernate.generate_statistics}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheMetrics implements MeterBinder {
+
+    private final UserDtoCache userDtoCache;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final UserProperties userProperties;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "dto", userDtoCache, cache -> hitRatio(cache.stats().hitCount(), cache.stats().missCount()));
+        if (!userProperties.getCache().getSecondLevel().isEnabled()) {
+            return;
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        register(registry, "entity", statistics,
+                stats -> hitRatio(stats.getDomainDataRegionStatistics(User.CACHE_REGION)));
+        // counted over all query regions, the user queries being the only cacheable ones: the statistics of
+        // a single query region asked for before its first query stay missing for good
+        register(registry, "query", statistics,
+                stats -> hitRatio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()));
+    }
+
+    private static <T> void register(
+            MeterRegistry registry, String cache, T source, ToDoubleFunction<T> hitRatio
+    ) {
+        Gauge.builder("user.cache.hit.ratio", source, hitRatio)
+                .description("Share of lookups in the user cache that were hits")
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics statistics) {
+        return statistics == null ? Double.NaN : hitRatio(statistics.getHitCount(), statistics.getMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in a listing ordered by {@code (dateOfBirth, id)}, written as {@code dd-MM-yyyy:id}.
+ */
+public record BirthDateCursor(LocalDate dateOfBirth, Long id) {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    public static BirthDateCursor of(UserDto user) {
+        return new BirthDateCursor(user.getDateOfBirth(), user.getId());
+    }
+
+    public static BirthDateCursor parse(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new BirthDateCursor(
+                    LocalDate.parse(cursor.substring(0, separator), DATE_FORMAT),
+                    Long.valueOf(cursor.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new BadRequestException("Cursor '%s' is malformed".formatted(cursor));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return DATE_FORMAT.format(dateOfBirth) + ":" + id;
+    }
+
+}
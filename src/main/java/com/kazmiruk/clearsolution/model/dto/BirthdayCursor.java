@@ -0,0 +1,37 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+
+import java.time.DateTimeException;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keyset position in a birthday listing ordered by {@code (birthday, id)}, written as {@code dd-MM:id}.
+ */
+public record BirthdayCursor(MonthDay birthday, Long id) {
+
+    private static final DateTimeFormatter BIRTHDAY_FORMAT = DateTimeFormatter.ofPattern("dd-MM");
+
+    public static BirthdayCursor of(UserDto user) {
+        return new BirthdayCursor(MonthDay.from(user.getDateOfBirth()), user.getId());
+    }
+
+    public static BirthdayCursor parse(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new BirthdayCursor(
+                    MonthDay.parse(cursor.substring(0, separator), BIRTHDAY_FORMAT),
+                    Long.valueOf(cursor.substring(separator + 1))
+            );
+        } catch (DateTimeException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new BadRequestException("Cursor '%s' is malformed".formatted(cursor));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return BIRTHDAY_FORMAT.format(birthday) + ":" + id;
+    }
+
+}
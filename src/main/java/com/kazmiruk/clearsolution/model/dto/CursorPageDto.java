@@ -0,0 +1,10 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is {@code null} on the last page,
+ * otherwise it should be passed back as the {@code after} parameter to fetch the next page.
+ */
+public record CursorPageDto<C>(List<UserDto> content, C nextCursor) {
+}
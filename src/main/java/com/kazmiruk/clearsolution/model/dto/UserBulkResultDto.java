@@ -0,0 +1,4 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+public record UserBulkResultDto(int affected) {
+}
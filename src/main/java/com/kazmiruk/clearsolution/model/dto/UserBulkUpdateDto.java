@@ -0,0 +1,22 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Sets the same values on every selected user. Only non-null fields are changed; emails and birth
+ * dates are left out because they need per-user checks.
+ */
+public record UserBulkUpdateDto(@NotNull UserSelectionDto users, @Valid @NotNull Changes changes) {
+
+    public record Changes(
+            @Size(min = 2, max = 50) String firstName,
+            @Size(min = 2, max = 50) String lastName,
+            String address,
+            @Pattern(regexp = "0\\d{9}") String phoneNumber
+    ) {
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change feed. {@code user} is the stored JSON of the user after the change and is
+ * written out as is, without being parsed again.
+ */
+public record UserChangeEventDto(
+        Long sequence,
+        Long userId,
+        UserChangeEvent.Type type,
+        Long version,
+        Instant occurredAt,
+        @JsonRawValue String user
+) {
+}
@@ -0,0 +1,10 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import java.util.List;
+
+/**
+ * Changes following the requested position, in feed order. {@code next} should be passed back as
+ * {@code since} to continue; it equals the requested position when no change arrived in time.
+ */
+public record UserChangePageDto(List<UserChangeEventDto> events, long next) {
+}
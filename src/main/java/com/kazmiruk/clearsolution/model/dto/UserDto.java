@@ -1,6 +1,7 @@
 package com.kazmiruk.clearsolution.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -41,4 +42,10 @@ public class UserDto {
 
     @Pattern(regexp = "0\\d{9}")
     private String phoneNumber;
+
+    /**
+     * Version of the user the DTO was read from; travels in the {@code ETag} header, not in the body.
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,46 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * State of an export job. {@code totalUsers} is counted when the job starts, so
+ * {@code exportedUsers / totalUsers} is its progress; rows committed meanwhile may make the final
+ * count differ slightly.
+ */
+public record UserExportDto(
+        UUID id,
+        Format format,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate from,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate to,
+        Status status,
+        long exportedUsers,
+        Long totalUsers,
+        Instant createdAt,
+        Instant completedAt,
+        String error
+) {
+
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Exports every user, or only those born within {@code [from, to]} when both are given.
+ */
+public record UserExportRequestDto(
+        @NotNull UserExportDto.Format format,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate from,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate to
+) {
+}
@@ -0,0 +1,6 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import java.util.List;
+
+public record UserImportReportDto(int created, int failed, List<UserImportResultDto> rows) {
+}
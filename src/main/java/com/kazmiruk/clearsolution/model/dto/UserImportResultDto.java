@@ -0,0 +1,19 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import java.util.Map;
+
+public record UserImportResultDto(int row, Status status, Long id, Map<String, String> errors) {
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    public static UserImportResultDto created(int row, Long id) {
+        return new UserImportResultDto(row, Status.CREATED, id, null);
+    }
+
+    public static UserImportResultDto failed(int row, Map<String, String> errors) {
+        return new UserImportResultDto(row, Status.FAILED, null, errors);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.kazmiruk.clearsolution.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Users a bulk operation applies to: either the given {@code ids} or everyone born within
+ * {@code [from, to]}. Ids that do not exist are skipped.
+ */
+public record UserSelectionDto(
+        List<Long> ids,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate from,
+        @JsonFormat(pattern = "dd-MM-yyyy") LocalDate to
+) {
+}
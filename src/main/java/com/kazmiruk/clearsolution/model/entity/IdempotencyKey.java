@@ -0,0 +1,54 @@
+package com.kazmiruk.clearsolution.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response recorded for an {@code Idempotency-Key} by the {@code jdbc} idempotency store. The status,
+ * ETag and body stay {@code null} while the request is being executed; the token identifies the request
+ * that claimed the key.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 300)
+    private String idempotencyKey;
+
+    private UUID token;
+
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private Integer status;
+
+    @Column(length = 100)
+    private String eTag;
+
+    @Column(columnDefinition = "text")
+    private String body;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+}
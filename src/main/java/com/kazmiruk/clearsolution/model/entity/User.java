@@ -1,20 +1,32 @@
 package com.kazmiruk.clearsolution.model.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_date_of_birth_id", columnList = "dateOfBirth, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @Builder
@@ -22,8 +34,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class User {
 
+    public static final String CACHE_REGION = "user";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 500)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 70)
@@ -40,7 +55,17 @@ public class User {
 
     private String address;
 
-    @Column(columnDefinition = "char(10)")
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(length = 10)
     private String phoneNumber;
 
+    /**
+     * Incremented on every update and checked by Hibernate on flush, so concurrent writers cannot
+     * silently overwrite each other. Also served as the user's ETag.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,63 @@
+package com.kazmiruk.clearsolution.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Outbox row describing one committed change of a user. The id is the position in the change feed.
+ */
+@Entity
+@Table(name = "user_change_events")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEvent {
+
+    /**
+     * Assigned from {@code user_change_events_seq} under the feed lock, all events of a transaction at
+     * once (see {@link com.kazmiruk.clearsolution.repository.UserChangeEventRepository#nextIds}). Pooled
+     * blocks taken outside the lock would let an instance insert ids below positions consumers have
+     * already read from rows another instance inserted later.
+     */
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * The user as JSON after the change, {@code null} for {@link Type#DELETED}.
+     */
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+}
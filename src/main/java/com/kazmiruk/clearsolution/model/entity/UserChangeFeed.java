@@ -0,0 +1,24 @@
+package com.kazmiruk.clearsolution.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row every transaction appending change events locks right before it commits, so events
+ * take their positions in commit order. See {@code UserChangeEventRepository#lockFeed}.
+ */
+@Entity
+@Table(name = "user_change_feed")
+@Getter
+@NoArgsConstructor
+public class UserChangeFeed {
+
+    public static final short ID = 1;
+
+    @Id
+    private Short id;
+
+}
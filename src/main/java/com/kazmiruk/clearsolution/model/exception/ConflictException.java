@@ -0,0 +1,9 @@
+package com.kazmiruk.clearsolution.model.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+}
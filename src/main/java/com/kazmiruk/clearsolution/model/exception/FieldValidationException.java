@@ -1,17 +1,15 @@
 package com.kazmiruk.clearsolution.model.exception;
 
-import com.kazmiruk.clearsolution.model.dto.UserDto;
-import jakarta.validation.ConstraintViolation;
 import lombok.Getter;
 
-import java.util.Set;
+import java.util.Map;
 
 @Getter
 public class FieldValidationException extends RuntimeException {
 
-    private final Set<ConstraintViolation<UserDto>> errors;
+    private final Map<String, String> errors;
 
-    public FieldValidationException(Set<ConstraintViolation<UserDto>> errors) {
+    public FieldValidationException(Map<String, String> errors) {
         this.errors = errors;
     }
 }
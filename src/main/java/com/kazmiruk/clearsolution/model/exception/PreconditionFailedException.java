@@ -0,0 +1,9 @@
+package com.kazmiruk.clearsolution.model.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
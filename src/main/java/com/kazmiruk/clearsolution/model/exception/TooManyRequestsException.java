@@ -0,0 +1,20 @@
+package com.kazmiruk.clearsolution.model.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * How long the client should wait before retrying, sent as {@code Retry-After}.
+     */
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
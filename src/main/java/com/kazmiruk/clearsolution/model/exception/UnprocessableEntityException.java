@@ -0,0 +1,9 @@
+package com.kazmiruk.clearsolution.model.exception;
+
+public class UnprocessableEntityException extends RuntimeException {
+
+    public UnprocessableEntityException(String message) {
+        super(message);
+    }
+
+}
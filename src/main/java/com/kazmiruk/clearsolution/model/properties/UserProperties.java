@@ -1,6 +1,8 @@
 package com.kazmiruk.clearsolution.model.properties;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,6 +10,15 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 @ConfigurationProperties(prefix = "user")
 @Validated
@@ -19,4 +30,443 @@ public class UserProperties {
     @NotNull
     private Integer age;
 
+    @Valid
+    @NotNull
+    private Page page = new Page();
+
+    @Valid
+    @NotNull
+    private Cache cache = new Cache();
+
+    @Valid
+    @NotNull
+    private BulkImport bulkImport = new BulkImport();
+
+    @Valid
+    @NotNull
+    private BulkMutation bulkMutation = new BulkMutation();
+
+    @Valid
+    @NotNull
+    private PatchCoalescing patchCoalescing = new PatchCoalescing();
+
+    @Valid
+    @NotNull
+    private Idempotency idempotency = new Idempotency();
+
+    @Valid
+    @NotNull
+    private Changes changes = new Changes();
+
+    @Valid
+    @NotNull
+    private Datasource datasource = new Datasource();
+
+    @Valid
+    @NotNull
+    private Export export = new Export();
+
+    @Valid
+    @NotNull
+    private Streaming streaming = new Streaming();
+
+    @Valid
+    @NotNull
+    private RateLimit rateLimit = new RateLimit();
+
+    @Valid
+    @NotNull
+    private Validation validation = new Validation();
+
+    @Getter
+    @Setter
+    public static class Page {
+
+        @Min(1)
+        @NotNull
+        private Integer defaultLimit = 100;
+
+        @Min(1)
+        @NotNull
+        private Integer maxLimit = 1000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        @Min(1)
+        @NotNull
+        private Long maximumSize = 10_000L;
+
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(5);
+
+        @Valid
+        @NotNull
+        private SecondLevel secondLevel = new SecondLevel();
+
+        @Valid
+        @NotNull
+        private Invalidation invalidation = new Invalidation();
+
+        /**
+         * Hibernate's second-level cache of {@code User} entities and query cache of the user queries
+         * marked cacheable, both in Caffeine through JCache.
+         */
+        @Getter
+        @Setter
+        public static class SecondLevel {
+
+            private boolean enabled = true;
+
+            @Min(1)
+            @NotNull
+            private Long entityMaximumSize = 10_000L;
+
+            @Min(1)
+            @NotNull
+            private Long queryMaximumSize = 1_000L;
+
+            @NotNull
+            private Duration ttl = Duration.ofMinutes(5);
+
+        }
+
+        @Getter
+        @Setter
+        public static class Invalidation {
+
+            /**
+             * How evictions reach the other instances of the service: {@code none} for a single
+             * instance, {@code loopback} for instances running in the same JVM, such as in tests.
+             */
+            @NotNull
+            private Channel channel = Channel.NONE;
+
+            /**
+             * Only instances on the same topic receive each other's evictions.
+             */
+            @NotBlank
+            private String topic = "users";
+
+            public enum Channel {
+                NONE,
+                LOOPBACK
+            }
+
+        }
+
+    }
+
+    @Getter
+    @Setter
+    public static class BulkImport {
+
+        /**
+         * Rows validated, checked for existing emails and inserted per transaction.
+         * Keep it a multiple of {@code hibernate.jdbc.batch_size}.
+         */
+        @Min(1)
+        @NotNull
+        private Integer chunkSize = 1000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class BulkMutation {
+
+        /**
+         * Users updated or deleted per statement and transaction by the bulk endpoints.
+         */
+        @Min(1)
+        @NotNull
+        private Integer chunkSize = 1000;
+
+    }
+
+    /**
+     * JSON Patch requests without {@code If-Match} for the same user that arrive within {@code window}
+     * of each other are applied in one transaction, in arrival order.
+     */
+    @Getter
+    @Setter
+    public static class PatchCoalescing {
+
+        private boolean enabled = false;
+
+        /**
+         * How long the first patch of a batch waits for others; every coalesced patch takes up to this
+         * much longer.
+         */
+        @NotNull
+        private Duration window = Duration.ofMillis(5);
+
+        /**
+         * A batch that reaches this size is applied without waiting for the rest of the window.
+         */
+        @Min(1)
+        @NotNull
+        private Integer maxBatchSize = 50;
+
+    }
+
+    /**
+     * Responses of {@code POST /api/v1/users} requests sent with an {@code Idempotency-Key}, replayed
+     * when the same request is sent again with that key within {@code retention}.
+     */
+    @Getter
+    @Setter
+    public static class Idempotency {
+
+        /**
+         * Where responses are kept: {@code memory} for a single instance, {@code jdbc} in the
+         * {@code idempotency_keys} table, shared by all instances.
+         */
+        @NotNull
+        private Store store = Store.MEMORY;
+
+        /**
+         * Responses kept by the {@code memory} store; the least used ones are dropped first.
+         */
+        @Min(1)
+        @NotNull
+        private Long maximumSize = 100_000L;
+
+        @NotNull
+        private Duration retention = Duration.ofHours(24);
+
+        /**
+         * How long a key stays claimed by a request that has not completed. Retries get 409 until then
+         * and may run again afterwards, e.g. when the instance running the request crashed; keep it
+         * above the longest time a create can take.
+         */
+        @NotNull
+        private Duration lease = Duration.ofMinutes(1);
+
+        public enum Store {
+            MEMORY,
+            JDBC
+        }
+
+    }
+
+    @Getter
+    @Setter
+    public static class Changes {
+
+        /**
+         * How long a long-polling request for changes waits before it is answered with an empty page.
+         * Keep it below {@code spring.mvc.async.request-timeout}.
+         */
+        @NotNull
+        private Duration pollTimeout = Duration.ofSeconds(25);
+
+        /**
+         * How often waiting requests re-check the outbox, which also picks up changes committed by
+         * other instances.
+         */
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        /**
+         * Where export files are written. Files left over from a previous run are deleted on startup,
+         * as jobs are only tracked in memory.
+         */
+        @NotNull
+        private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "clear-solution-exports");
+
+        /**
+         * Exports running at the same time, each holding a database connection; others wait in line.
+         */
+        @Min(1)
+        @NotNull
+        private Integer concurrency = 2;
+
+        /**
+         * How long a finished export and its file are kept before they are deleted.
+         */
+        @NotNull
+        private Duration retention = Duration.ofHours(24);
+
+    }
+
+    /**
+     * The NDJSON stream of all users, which holds a database connection and a read-only transaction
+     * for as long as the client takes to read it.
+     */
+    @Getter
+    @Setter
+    public static class Streaming {
+
+        /**
+         * Streams running at the same time; further ones are answered 503. Keep it well below the
+         * connection pool size, so slow readers cannot take the connections of all other requests.
+         */
+        @Min(1)
+        @NotNull
+        private Integer maxConcurrent = 2;
+
+        /**
+         * How long a stream may take, instead of {@code spring.mvc.async.request-timeout}. Long enough
+         * to read the whole table, short enough to free the connection of a client that stopped reading.
+         */
+        @NotNull
+        private Duration timeout = Duration.ofHours(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+
+        /**
+         * Off by default, as clients are told apart by remote address unless {@code clientHeader} is
+         * set, and behind a proxy all of them would share its budget.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Header identifying the client, for deployments behind a gateway that authenticates clients
+         * and sets it. Without it clients are told apart by remote address. Never name a header that
+         * clients set themselves: a client could use a new identity for every request.
+         */
+        private String clientHeader;
+
+        /**
+         * Buckets tracked at once. Beyond it, the least recently seen client starts over with a full
+         * bucket.
+         */
+        @Min(1)
+        @NotNull
+        private Long maxClients = 100_000L;
+
+        /**
+         * Budget of each client across all endpoints not listed in {@code endpoints}.
+         */
+        @Valid
+        @NotNull
+        private Budget defaultBudget = new Budget();
+
+        /**
+         * Budgets of each client for single endpoints, keyed by method and URI template, e.g.
+         * {@code "[GET /api/v1/users]"}.
+         */
+        @Valid
+        @NotNull
+        private Map<String, Budget> endpoints = new HashMap<>();
+
+        /**
+         * Requests handled at once across all clients. Requests beyond it are answered with 503
+         * before they reach a service, rather than queueing for a database connection.
+         */
+        @Min(1)
+        @NotNull
+        private Integer maxConcurrentRequests = 64;
+
+        /**
+         * Endpoints that do not count against {@code max-concurrent-requests}, such as long polls
+         * that hold no connection while they wait.
+         */
+        @NotNull
+        private Set<String> concurrencyExcludedEndpoints = new HashSet<>();
+
+        /**
+         * A bucket of {@code limit} requests, refilled continuously over {@code period}.
+         */
+        @Getter
+        @Setter
+        public static class Budget {
+
+            @Min(1)
+            @NotNull
+            private Integer limit = 100;
+
+            @NotNull
+            private Duration period = Duration.ofSeconds(1);
+
+        }
+
+    }
+
+    @Getter
+    @Setter
+    public static class Validation {
+
+        /**
+         * How a {@code UserDto} is checked against its constraints: {@code fast} with hand-written
+         * checks, {@code bean} with the Bean Validation engine. Both give the same errors.
+         */
+        @NotNull
+        private Mode mode = Mode.FAST;
+
+        public enum Mode {
+            BEAN,
+            FAST
+        }
+
+    }
+
+    @Getter
+    @Setter
+    public static class Datasource {
+
+        /**
+         * Read replicas serving read-only transactions in turn. Without any, everything runs on
+         * {@code spring.datasource}.
+         */
+        @Valid
+        @NotNull
+        private List<Replica> replicas = new ArrayList<>();
+
+        /**
+         * Replicas further behind the primary than this, or failing the lag check, are skipped until
+         * they catch up; reads fall back to the primary when no replica is left.
+         */
+        @NotNull
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        @NotNull
+        private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+        /**
+         * Returns a replica's lag behind the primary in seconds. The default reads the replay position
+         * of a PostgreSQL streaming replica: 0 once it has replayed everything it received, so an idle
+         * primary does not make it look stale, and 0 on a server that is not in recovery. While WAL is
+         * pending it reports the time since the last replayed commit, which overestimates right after
+         * an idle period and so errs towards the primary.
+         */
+        @NotBlank
+        private String lagQuery = """
+                select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                    else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end""";
+
+        @Getter
+        @Setter
+        public static class Replica {
+
+            @NotBlank
+            private String url;
+
+            /**
+             * Defaults to {@code spring.datasource.username}, like the password.
+             */
+            private String username;
+
+            private String password;
+
+        }
+
+    }
+
 }
@@ -0,0 +1,172 @@
+package com.kazmiruk.clearsolution.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kazmiruk.clearsolution.model.exception.ServiceUnavailableException;
+import com.kazmiruk.clearsolution.model.exception.TooManyRequestsException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Rejects requests before they reach the controller: with 429 once the client has used up its
+ * {@code user.rate-limit} budget for the endpoint, and with 503 while {@code max-concurrent-requests}
+ * are already being handled. Both checks are non-blocking. Buckets live in a bounded Caffeine cache,
+ * and the concurrency limit is a semaphore that is only ever tried, never waited on, so no request
+ * queues behind a lock here. Rejections are counted in {@code http.server.requests.rejected}, tagged
+ * like {@code http.server.requests} plus the {@code reason}.
+ * <p>
+ * A request holds its concurrency permit until its response is complete, including the body of a
+ * streaming or asynchronous response.
+ */
+@Component
+public class RequestLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = RequestLimitInterceptor.class.getName() + ".permit";
+
+    private final UserProperties.RateLimit properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Semaphore concurrencyLimit;
+
+    public RequestLimitInterceptor(UserProperties userProperties, MeterRegistry meterRegistry) {
+        this.properties = userProperties.getRateLimit();
+        this.meterRegistry = meterRegistry;
+        // once idle for a whole period a bucket is full again, the same as a new one
+        Duration longestPeriod = Stream.concat(
+                        Stream.of(properties.getDefaultBudget()), properties.getEndpoints().values().stream()
+                )
+                .map(UserProperties.RateLimit.Budget::getPeriod)
+                .max(Duration::compareTo)
+                .orElseThrow();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(longestPeriod)
+                .build();
+        this.concurrencyLimit = new Semaphore(properties.getMaxConcurrentRequests());
+        Gauge.builder("http.server.requests.limited.active", this,
+                        interceptor -> properties.getMaxConcurrentRequests() - interceptor.concurrencyLimit.availablePermits())
+                .description("Requests counted against user.rate-limit.max-concurrent-requests")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the asynchronous dispatch of a streaming response was already let through
+        if (!properties.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        UserProperties.RateLimit.Budget budget = properties.getEndpoints().get(endpoint);
+        String key = budget == null ? client(request) : client(request) + " " + endpoint;
+        UserProperties.RateLimit.Budget bucketBudget = budget == null ? properties.getDefaultBudget() : budget;
+        TokenBucket bucket = buckets.get(
+                key, k -> new TokenBucket(bucketBudget.getLimit(), bucketBudget.getPeriod(), System.nanoTime())
+        );
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            rejected(request, "rate-limit");
+            throw new TooManyRequestsException(
+                    "Rate limit of %d requests per %s exceeded".formatted(bucketBudget.getLimit(), bucketBudget.getPeriod()),
+                    Duration.ofNanos(waitNanos)
+            );
+        }
+        if (properties.getConcurrencyExcludedEndpoints().contains(endpoint)) {
+            return true;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            rejected(request, "concurrency");
+            throw new ServiceUnavailableException("Too many requests in progress", Duration.ofSeconds(1));
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            // covers responses that end without an asynchronous dispatch, e.g. when the client goes away
+            request.getAsyncContext().addListener(permit);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (StringUtils.hasText(properties.getClientHeader())) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(client)) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void rejected(HttpServletRequest request, String reason) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Counter.builder("http.server.requests.rejected")
+                .description("Requests rejected by the rate or concurrency limit before reaching a controller")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Returns the concurrency permit exactly once, whichever of completion and the async listener
+     * comes first.
+     */
+    private class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimit.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+    }
+
+}
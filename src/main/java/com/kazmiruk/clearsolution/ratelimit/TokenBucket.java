@@ -0,0 +1,47 @@
+package com.kazmiruk.clearsolution.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code limit} tokens and refilled continuously at {@code limit} per
+ * {@code period}. Instead of a token count and a refill timestamp, it keeps only the time at which it
+ * will be full again (the generic cell rate algorithm), so taking a token is a single compare-and-set
+ * and never blocks, however many requests of a client race for it.
+ * <p>
+ * Times are {@link System#nanoTime()} values and only compared by subtraction.
+ */
+class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(int limit, Duration period, long now) {
+        this.nanosPerToken = Math.max(1, period.toNanos() / limit);
+        this.capacityNanos = nanosPerToken * limit;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is left.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one is available
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + nanosPerToken;
+            long missing = next - now - capacityNanos;
+            if (missing > 0) {
+                return missing;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
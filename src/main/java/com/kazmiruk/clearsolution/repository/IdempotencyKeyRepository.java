@@ -0,0 +1,42 @@
+package com.kazmiruk.clearsolution.repository;
+
+import com.kazmiruk.clearsolution.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Plain insert, unlike {@code save}, which would merge into a row another instance just inserted;
+     * a taken key fails with a unique violation.
+     */
+    @Modifying
+    @Query("""
+            insert into IdempotencyKey (idempotencyKey, token, fingerprint, expiresAt)
+            values (:idempotencyKey, :token, :fingerprint, :expiresAt)""")
+    int insertKey(String idempotencyKey, UUID token, String fingerprint, Instant expiresAt);
+
+    @Modifying
+    @Query("""
+            update IdempotencyKey k
+            set k.status = :status, k.eTag = :eTag, k.body = :body, k.expiresAt = :expiresAt
+            where k.idempotencyKey = :idempotencyKey and k.token = :token""")
+    int updateResponse(String idempotencyKey, UUID token, int status, String eTag, String body, Instant expiresAt);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.idempotencyKey = :idempotencyKey and k.token = :token")
+    int deleteKey(String idempotencyKey, UUID token);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.expiresAt <= :now")
+    int deleteAllExpired(Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.idempotencyKey = :idempotencyKey and k.expiresAt <= :now")
+    int deleteIfExpired(String idempotencyKey, Instant now);
+
+}
@@ -0,0 +1,36 @@
+package com.kazmiruk.clearsolution.repository;
+
+import com.kazmiruk.clearsolution.model.dto.UserChangeEventDto;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.entity.UserChangeFeed;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserChangeEventDto(
+                    e.id, e.userId, e.type, e.version, e.occurredAt, e.payload)
+            from UserChangeEvent e
+            where e.id > :since
+            order by e.id""")
+    List<UserChangeEventDto> findDtosAfter(long since, Limit limit);
+
+    /**
+     * Locks the feed row until the transaction ends. Events are only inserted, and their ids only
+     * taken, while holding it, so a visible id proves every lower one has committed or rolled back.
+     */
+    @Query(value = "select id from user_change_feed where id = " + UserChangeFeed.ID + " for update", nativeQuery = true)
+    Short lockFeed();
+
+    /**
+     * Takes the next {@code count} positions of the feed in one statement, so the feed lock is held for
+     * the same number of round-trips however many events a transaction saves.
+     */
+    @Query(value = "select nextval('user_change_events_seq') from generate_series(1, :count) order by 1", nativeQuery = true)
+    List<Long> nextIds(int count);
+
+}
@@ -1,14 +1,39 @@
 package com.kazmiruk.clearsolution.repository;
 
+import com.kazmiruk.clearsolution.model.dto.UserDto;
 import com.kazmiruk.clearsolution.model.entity.User;
 import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_STORE_MODE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+
+    /**
+     * Query cache region of the cacheable user queries; any change to the users table invalidates it.
+     */
+    String QUERY_CACHE_REGION = "user-queries";
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
 
     default User getUserById(Long id) {
         return this.findById(id).orElseThrow(() ->
@@ -16,5 +41,135 @@ public interface UserRepository extends JpaRepository<User, Long> {
         );
     }
 
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<User> findAllByDateOfBirthBetween(LocalDate from, LocalDate to);
+
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserDto(
+                    u.id, u.email, u.firstName, u.lastName, u.dateOfBirth, u.address, u.phoneNumber, u.version)
+            from User u
+            where u.dateOfBirth between :from and :to
+            order by u.dateOfBirth, u.id""")
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<UserDto> findDtosByDateOfBirthBetween(LocalDate from, LocalDate to, Limit limit);
+
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserDto(
+                    u.id, u.email, u.firstName, u.lastName, u.dateOfBirth, u.address, u.phoneNumber, u.version)
+            from User u
+            where u.dateOfBirth between :from and :to
+              and u.dateOfBirth >= :afterDate
+              and (u.dateOfBirth > :afterDate or u.id > :afterId)
+            order by u.dateOfBirth, u.id""")
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<UserDto> findDtosByDateOfBirthBetweenAfter(
+            LocalDate from, LocalDate to, LocalDate afterDate, Long afterId, Limit limit
+    );
+
+    /**
+     * Users whose birthday, as {@code month * 100 + day}, is within {@code [from, to]}, ordered by
+     * {@code (birthday, id)} and skipping those born on {@code from} with an id up to {@code afterId}.
+     * Backed by the expression index of migration V4, whatever the years of birth.
+     */
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserDto(
+                    u.id, u.email, u.firstName, u.lastName, u.dateOfBirth, u.address, u.phoneNumber, u.version)
+            from User u
+            where extract(month from u.dateOfBirth) * 100 + extract(day from u.dateOfBirth) between :from and :to
+              and (extract(month from u.dateOfBirth) * 100 + extract(day from u.dateOfBirth) > :from or u.id > :afterId)
+            order by extract(month from u.dateOfBirth) * 100 + extract(day from u.dateOfBirth), u.id""")
+    List<UserDto> findDtosByBirthdayBetween(int from, int to, long afterId, Limit limit);
+
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserDto(
+                    u.id, u.email, u.firstName, u.lastName, u.dateOfBirth, u.address, u.phoneNumber, u.version)
+            from User u
+            where u.id in :ids""")
+    List<UserDto> findDtosByIdIn(Collection<Long> ids);
+
+    @Query("""
+            select u.id
+            from User u
+            where u.dateOfBirth between :from and :to
+              and u.id > :after
+            order by u.id""")
+    List<Long> findIdsByDateOfBirthBetween(LocalDate from, LocalDate to, Long after, Limit limit);
+
+    /**
+     * Sets every non-null value on the given users in one statement and bumps their versions.
+     */
+    @Modifying
+    @Query("""
+            update User u
+            set u.firstName = coalesce(:firstName, u.firstName),
+                u.lastName = coalesce(:lastName, u.lastName),
+                u.address = coalesce(:address, u.address),
+                u.phoneNumber = coalesce(:phoneNumber, u.phoneNumber),
+                u.version = u.version + 1
+            where u.id in :ids""")
+    int updateAllByIdIn(
+            Collection<Long> ids, String firstName, String lastName, String address, String phoneNumber
+    );
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Users whose searchable columns contain {@code pattern}, best {@code word_similarity} to
+     * {@code query} first. Backed by the trigram index of migration V2, so PostgreSQL only.
+     */
+    @Query("""
+            select new com.kazmiruk.clearsolution.model.dto.UserDto(
+                    u.id, u.email, u.firstName, u.lastName, u.dateOfBirth, u.address, u.phoneNumber, u.version)
+            from User u
+            where cast(function('users_search_text', u.firstName, u.lastName, u.email, u.phoneNumber, u.address) as String)
+                    ilike :pattern escape '\\'
+            order by function('word_similarity', :query,
+                    function('users_search_text', u.firstName, u.lastName, u.email, u.phoneNumber, u.address)) desc,
+                u.id""")
+    Slice<UserDto> searchDtos(String query, String pattern, Pageable pageable);
+
+    /*
+     * The scans below still read the second-level cache but do not store what they load, so paging
+     * or streaming through the table does not evict the users that are actually read by id. Hibernate
+     * only applies the hint to a stream while opening it, so UserService also turns storing off for
+     * the session while it reads one.
+     */
+
+    @QueryHints(@QueryHint(name = HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("select u from User u order by u.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    Stream<User> streamAll();
+
+    @Query("select u from User u where u.dateOfBirth between :from and :to order by u.dateOfBirth, u.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    Stream<User> streamAllByDateOfBirthBetween(LocalDate from, LocalDate to);
+
+    long countByDateOfBirthBetween(LocalDate from, LocalDate to);
 }
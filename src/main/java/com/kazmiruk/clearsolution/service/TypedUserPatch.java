@@ -0,0 +1,156 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.kazmiruk.clearsolution.model.entity.User;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * JSON Patch compiled against the known top-level {@code UserDto} members, so it can be applied to a
+ * {@link User} field by field instead of round-tripping the whole user through a Jackson tree.
+ * <p>
+ * Only {@code add}, {@code replace}, {@code remove} and {@code test} with string or null values are
+ * compiled; anything else makes {@link #compile} return {@code null} and the caller falls back to the
+ * generic patch engine, which also produces the error for malformed patches.
+ */
+final class TypedUserPatch {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final List<Operation> operations;
+
+    private TypedUserPatch(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    static TypedUserPatch compile(JsonNode patch) {
+        if (patch == null || !patch.isArray()) {
+            return null;
+        }
+        List<Operation> operations = new ArrayList<>(patch.size());
+        for (JsonNode operation : patch) {
+            Operation compiled = compileOperation(operation);
+            if (compiled == null) {
+                return null;
+            }
+            operations.add(compiled);
+        }
+        return new TypedUserPatch(operations);
+    }
+
+    private static Operation compileOperation(JsonNode operation) {
+        Op op = Op.of(operation.path("op").asText());
+        Field field = Field.of(operation.path("path").asText());
+        if (op == null || field == null) {
+            return null;
+        }
+        if (op == Op.REMOVE) {
+            return new Operation(op, field, null);
+        }
+        JsonNode value = operation.get("value");
+        if (value == null || !(value.isTextual() || value.isNull())) {
+            return null;
+        }
+        if (value.isNull()) {
+            return new Operation(op, field, null);
+        }
+        if (field == Field.DATE_OF_BIRTH) {
+            try {
+                return new Operation(op, field, LocalDate.parse(value.textValue(), DATE_FORMAT));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return new Operation(op, field, value.textValue());
+    }
+
+    /**
+     * Applies the operations in order to a staged copy of the touched fields, leaving {@code user}
+     * untouched. Returns the resulting value of every touched field, or {@code null} when a {@code test}
+     * operation does not hold.
+     */
+    Map<Field, Object> stage(User user) {
+        Map<Field, Object> changes = new EnumMap<>(Field.class);
+        for (Operation operation : operations) {
+            Field field = operation.field();
+            if (operation.op() == Op.TEST) {
+                Object current = changes.containsKey(field) ? changes.get(field) : field.getter.apply(user);
+                if (!Objects.equals(current, operation.value())) {
+                    return null;
+                }
+            } else {
+                changes.put(field, operation.value());
+            }
+        }
+        return changes;
+    }
+
+    enum Op {
+        ADD, REPLACE, REMOVE, TEST;
+
+        private static Op of(String name) {
+            return switch (name) {
+                case "add" -> ADD;
+                case "replace" -> REPLACE;
+                case "remove" -> REMOVE;
+                case "test" -> TEST;
+                default -> null;
+            };
+        }
+    }
+
+    enum Field {
+        EMAIL("email", User::getEmail, (user, value) -> user.setEmail((String) value)),
+        FIRST_NAME("firstName", User::getFirstName, (user, value) -> user.setFirstName((String) value)),
+        LAST_NAME("lastName", User::getLastName, (user, value) -> user.setLastName((String) value)),
+        DATE_OF_BIRTH("dateOfBirth", User::getDateOfBirth, (user, value) -> user.setDateOfBirth((LocalDate) value)),
+        ADDRESS("address", User::getAddress, (user, value) -> user.setAddress((String) value)),
+        PHONE_NUMBER("phoneNumber", User::getPhoneNumber, (user, value) -> user.setPhoneNumber((String) value));
+
+        private static final Field[] FIELDS = values();
+
+        private final String property;
+
+        private final Function<User, Object> getter;
+
+        private final BiConsumer<User, Object> setter;
+
+        Field(String property, Function<User, Object> getter, BiConsumer<User, Object> setter) {
+            this.property = property;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private static Field of(String path) {
+            for (Field field : FIELDS) {
+                if (path.length() == field.property.length() + 1
+                        && path.charAt(0) == '/'
+                        && path.endsWith(field.property)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        String property() {
+            return property;
+        }
+
+        void set(User user, Object value) {
+            setter.accept(user, value);
+        }
+    }
+
+    private record Operation(Op op, Field field, Object value) {
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The {@code user.age} rule as one date comparison: a user is old enough when born on or before the
+ * cutoff, today minus {@code user.age} years. The cutoff is computed once per day of the clock's zone
+ * instead of a {@code Period} per write, and gives the same answer as
+ * {@code Period.between(dateOfBirth, today).getYears() >= age}, so someone born on Feb 29 comes of age
+ * on Mar 1 in common years.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAgePolicy {
+
+    private final UserProperties userProperties;
+
+    private final Clock clock;
+
+    private volatile Cutoff cutoff = new Cutoff(LocalDate.MIN, LocalDate.MIN, Long.MIN_VALUE, Long.MIN_VALUE);
+
+    public void checkUserAge(LocalDate dateOfBirth) {
+        if (dateOfBirth.isAfter(latestDateOfBirth())) {
+            throw new BadRequestException(
+                    "User must be %d years old or older".formatted(userProperties.getAge())
+            );
+        }
+    }
+
+    /**
+     * The last date of birth of a user who is {@code user.age} years old today.
+     */
+    public LocalDate latestDateOfBirth() {
+        return currentCutoff().dateOfBirth();
+    }
+
+    public LocalDate today() {
+        return currentCutoff().today();
+    }
+
+    private Cutoff currentCutoff() {
+        Cutoff current = cutoff;
+        long now = clock.millis();
+        // the clock may also be set back, e.g. a fixed one in tests
+        if (now < current.validFrom() || now >= current.validUntil()) {
+            ZoneId zone = clock.getZone();
+            LocalDate today = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+            current = new Cutoff(
+                    today,
+                    today.minusYears(userProperties.getAge()),
+                    today.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()
+            );
+            cutoff = current;
+        }
+        return current;
+    }
+
+    private record Cutoff(LocalDate today, LocalDate dateOfBirth, long validFrom, long validUntil) {
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kazmiruk.clearsolution.mapper.UserMapper;
+import com.kazmiruk.clearsolution.model.dto.UserChangeEventDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangePageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.UserChangeEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Change feed of users backed by the {@code user_change_events} outbox. Writers append events in their
+ * own transaction, which saves them as it commits; readers page through them by position and may
+ * long-poll for new ones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserChangeService {
+
+    private final UserChangeEventRepository userChangeEventRepository;
+
+    private final EntityManager entityManager;
+
+    private final UserMapper userMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserProperties userProperties;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean deliveryRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("user-changes")
+                .daemon()
+                .factory());
+        long interval = userProperties.getChanges().getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::deliver, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Appends an event for every user to the outbox in the caller's transaction. Must be called after
+     * the change is flushed, so the event carries the user's id and new version.
+     */
+    public void appendAll(Collection<User> users, UserChangeEvent.Type type) {
+        appendDtos(users.stream().map(userMapper::toDto).toList(), type);
+    }
+
+    public void append(User user, UserChangeEvent.Type type) {
+        appendAll(List.of(user), type);
+    }
+
+    /**
+     * Same as {@link #appendAll} for users that were changed with set-based statements and read back
+     * as DTOs.
+     */
+    public void appendDtos(Collection<UserDto> users, UserChangeEvent.Type type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("User changes can only be appended inside a transaction");
+        }
+        Instant now = Instant.now();
+        users.forEach(user -> pendingEvents().add(newEvent(user, type, now)));
+    }
+
+    /**
+     * Events of the current transaction, saved right before it commits under the feed lock, so their
+     * positions are taken in commit order and the lock is held no longer than the commit.
+     */
+    private List<UserChangeEvent> pendingEvents() {
+        @SuppressWarnings("unchecked")
+        List<UserChangeEvent> pending = (List<UserChangeEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<UserChangeEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    userChangeEventRepository.lockFeed();
+                    List<Long> ids = userChangeEventRepository.nextIds(events.size());
+                    for (int i = 0; i < events.size(); i++) {
+                        events.get(i).setId(ids.get(i));
+                        // persisted rather than saved: the repository would merge an entity with an id
+                        entityManager.persist(events.get(i));
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    requestDelivery();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UserChangeService.this);
+                }
+            });
+            pending = events;
+        }
+        return pending;
+    }
+
+    /**
+     * Builds the outbox row for a change without saving it, for writers that do not go through JPA.
+     */
+    public UserChangeEvent newEvent(UserDto user, UserChangeEvent.Type type, Instant occurredAt) {
+        return UserChangeEvent.builder()
+                .userId(user.getId())
+                .type(type)
+                .version(user.getVersion())
+                .occurredAt(occurredAt)
+                .payload(type == UserChangeEvent.Type.DELETED ? null : writePayload(user))
+                .build();
+    }
+
+    private String writePayload(UserDto user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public UserChangePageDto getChanges(long since, Integer limit) {
+        return findCommitted(since, resolvePageSize(limit));
+    }
+
+    /**
+     * Like {@link #getChanges} but, when there is nothing to return yet, completes once a change
+     * arrives or with an empty page after {@code user.changes.poll-timeout}.
+     */
+    public CompletableFuture<UserChangePageDto> awaitChanges(long since, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        UserChangePageDto page = findCommitted(since, pageSize);
+        if (!page.events().isEmpty()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(since, pageSize, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.result()
+                .completeOnTimeout(page, userProperties.getChanges().getPollTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> waiters.remove(waiter));
+        return waiter.result();
+    }
+
+    /**
+     * Reads events in feed order. Positions are taken under the feed lock, which is held until commit,
+     * so no transaction can still add a position below a visible one and every position read can be
+     * handed out. Runs outside a read-only transaction and so always on the primary: a lagging replica
+     * could still miss events.
+     */
+    private UserChangePageDto findCommitted(long since, int pageSize) {
+        List<UserChangeEventDto> events = userChangeEventRepository.findDtosAfter(since, Limit.of(pageSize));
+        long next = events.isEmpty() ? since : events.get(events.size() - 1).sequence();
+        return new UserChangePageDto(events, next);
+    }
+
+    /**
+     * Schedules one extra delivery after a local commit, instead of waiting for the next poll; commits
+     * arriving before it runs share it. Call it after committing events appended elsewhere.
+     */
+    public void requestDelivery() {
+        if (!waiters.isEmpty() && deliveryRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                deliveryRequested.set(false);
+                deliver();
+            });
+        }
+    }
+
+    private void deliver() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        try {
+            long since = waiters.stream().mapToLong(Waiter::since).min().orElseThrow();
+            int pageSize = waiters.stream().mapToInt(Waiter::pageSize).max().orElseThrow();
+            List<UserChangeEventDto> events = findCommitted(since, pageSize).events();
+            for (Waiter waiter : waiters) {
+                List<UserChangeEventDto> waiterEvents = events.stream()
+                        .filter(event -> event.sequence() > waiter.since())
+                        .limit(waiter.pageSize())
+                        .toList();
+                if (!waiterEvents.isEmpty()) {
+                    waiter.result().complete(new UserChangePageDto(
+                            waiterEvents, waiterEvents.get(waiterEvents.size() - 1).sequence()
+                    ));
+                }
+            }
+        } catch (RuntimeException e) {
+            // keep the scheduled task alive, waiting requests are retried on the next poll
+            log.warn("Failed to deliver user changes", e);
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        UserProperties.Page page = userProperties.getPage();
+        if (limit == null) {
+            return page.getDefaultLimit();
+        }
+        if (limit < 1 || limit > page.getMaxLimit()) {
+            throw new BadRequestException(
+                    "Limit should be between 1 and %d".formatted(page.getMaxLimit())
+            );
+        }
+        return limit;
+    }
+
+    private record Waiter(long since, int pageSize, CompletableFuture<UserChangePageDto> result) {
+    }
+
+}
@@ -0,0 +1,349 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportRequestDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.ConflictException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports users in the background. A job streams every user, or those born within a range, through a
+ * server-side cursor and writes them one by one to a gzip-compressed CSV or NDJSON file under
+ * {@code user.export.directory}, so memory use does not grow with the table. Jobs live in memory only
+ * and are removed together with their file {@code user.export.retention} after they finish.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final UserService userService;
+
+    private final UserRepository userRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserProperties userProperties;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        UserProperties.Export exportProperties = userProperties.getExport();
+        Path directory = Files.createDirectories(exportProperties.getDirectory());
+        // nothing can download what a previous run left behind, its jobs are gone
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "users-*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        executor = Executors.newScheduledThreadPool(exportProperties.getConcurrency(), Thread.ofPlatform()
+                .name("user-export-", 0)
+                .daemon()
+                .factory());
+        executor.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    public UserExportDto submitExport(UserExportRequestDto request) {
+        if ((request.from() == null) != (request.to() == null)) {
+            throw new BadRequestException("Either both from and to or neither should be given");
+        }
+        if (request.from() != null) {
+            UserService.checkBirthDateRange(request.from(), request.to());
+        }
+        UUID id = UUID.randomUUID();
+        Path file = userProperties.getExport().getDirectory()
+                .resolve("users-%s.%s.gz".formatted(id, request.format().extension()));
+        Job job = new Job(id, request, file, Instant.now());
+        jobs.put(id, job);
+        job.future = executor.submit(() -> run(job));
+        return job.toDto();
+    }
+
+    public UserExportDto getExport(UUID id) {
+        return findJob(id).toDto();
+    }
+
+    /**
+     * Returns the file of a completed export.
+     */
+    public Path getExportFile(UUID id) {
+        Job job = findJob(id);
+        if (job.status != UserExportDto.Status.COMPLETED) {
+            throw new ConflictException(
+                    "Export %s is %s".formatted(id, job.status.name().toLowerCase())
+            );
+        }
+        return job.file;
+    }
+
+    /**
+     * Cancels the export if it has not finished yet and deletes it together with its file.
+     */
+    public void deleteExport(UUID id) {
+        Job job = jobs.remove(id);
+        if (job == null) {
+            throw new NotFoundException("Export %s not found".formatted(id));
+        }
+        job.cancelled = true;
+        if (job.future != null) {
+            job.future.cancel(false);
+        }
+        deleteFile(job.file);
+    }
+
+    private Job findJob(UUID id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("Export %s not found".formatted(id));
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        job.status = UserExportDto.Status.RUNNING;
+        UserExportRequestDto request = job.request;
+        Path partFile = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            job.totalUsers = request.from() == null
+                    ? userRepository.count()
+                    : userRepository.countByDateOfBirthBetween(request.from(), request.to());
+            try (RowWriter writer = openWriter(request.format(), partFile)) {
+                Consumer<UserDto> consumer = user -> {
+                    if (job.cancelled) {
+                        throw new CancellationException();
+                    }
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    job.exportedUsers.incrementAndGet();
+                };
+                if (request.from() == null) {
+                    userService.streamAllUsers(consumer);
+                } else {
+                    userService.streamUsersByBirthDateRange(request.from(), request.to(), consumer);
+                }
+            }
+            Files.move(partFile, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.completedAt = Instant.now();
+            job.status = UserExportDto.Status.COMPLETED;
+        } catch (Exception e) {
+            deleteFile(partFile);
+            if (job.cancelled) {
+                return;
+            }
+            log.warn("Export {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.completedAt = Instant.now();
+            job.status = UserExportDto.Status.FAILED;
+        }
+        if (job.cancelled) {
+            // deleted while the file was being moved into place
+            deleteFile(job.file);
+        }
+    }
+
+    private RowWriter openWriter(UserExportDto.Format format, Path file) throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE
+        );
+        return switch (format) {
+            case CSV -> new CsvRowWriter(outputStream);
+            case NDJSON -> new NdjsonRowWriter(outputStream, objectMapper);
+        };
+    }
+
+    void removeExpired() {
+        Instant expiredBefore = Instant.now().minus(userProperties.getExport().getRetention());
+        jobs.values().removeIf(job -> {
+            boolean expired = job.completedAt != null && job.completedAt.isBefore(expiredBefore);
+            if (expired) {
+                deleteFile(job.file);
+            }
+            return expired;
+        });
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete export file {}", file, e);
+        }
+    }
+
+    private static class Job {
+
+        private final UUID id;
+
+        private final UserExportRequestDto request;
+
+        private final Path file;
+
+        private final Instant createdAt;
+
+        private final AtomicLong exportedUsers = new AtomicLong();
+
+        private volatile UserExportDto.Status status = UserExportDto.Status.QUEUED;
+
+        private volatile Long totalUsers;
+
+        private volatile Instant completedAt;
+
+        private volatile String error;
+
+        private volatile boolean cancelled;
+
+        private volatile Future<?> future;
+
+        private Job(UUID id, UserExportRequestDto request, Path file, Instant createdAt) {
+            this.id = id;
+            this.request = request;
+            this.file = file;
+            this.createdAt = createdAt;
+        }
+
+        private UserExportDto toDto() {
+            return new UserExportDto(
+                    id, request.format(), request.from(), request.to(), status, exportedUsers.get(), totalUsers,
+                    createdAt, completedAt, error
+            );
+        }
+
+    }
+
+    private interface RowWriter extends Closeable {
+
+        void write(UserDto user) throws IOException;
+
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; dates are formatted like in the JSON API.
+     */
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeRow("id", "email", "firstName", "lastName", "dateOfBirth", "address", "phoneNumber");
+        }
+
+        @Override
+        public void write(UserDto user) throws IOException {
+            writeRow(
+                    String.valueOf(user.getId()), user.getEmail(), user.getFirstName(), user.getLastName(),
+                    user.getDateOfBirth().format(CSV_DATE_FORMAT), user.getAddress(), user.getPhoneNumber()
+            );
+        }
+
+        private void writeRow(String... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeValue(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quoted = value.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n');
+            if (!quoted) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+    }
+
+    private static class NdjsonRowWriter implements RowWriter {
+
+        private final OutputStream outputStream;
+
+        private final ObjectMapper objectMapper;
+
+        private NdjsonRowWriter(OutputStream outputStream, ObjectMapper objectMapper) {
+            this.outputStream = outputStream;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void write(UserDto user) throws IOException {
+            outputStream.write(objectMapper.writeValueAsBytes(user));
+            outputStream.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+
+    }
+
+}
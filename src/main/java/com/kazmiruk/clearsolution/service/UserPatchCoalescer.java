@@ -0,0 +1,177 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for JSON Patch requests that, with {@code user.patch-coalescing.enabled}, queues the
+ * patches for each user and applies every batch with {@link UserService#updateUserInOrder}.
+ * <p>
+ * The first patch of a batch leads it: its request thread waits for up to the window, or until the
+ * batch is full, then applies the batch and answers the other requests, which just wait. Batches are
+ * kept per user id in a {@link ConcurrentHashMap}, so only requests for the same user ever meet on a
+ * lock, and a user's batches run one after another. Should a batch fail as a whole, its patches are
+ * retried one by one, so each request still gets its own answer. Patches with {@code If-Match} are
+ * never queued, as their expected version only holds for the state before the batch.
+ */
+@Component
+public class UserPatchCoalescer {
+
+    private final UserService userService;
+
+    private final UserProperties.PatchCoalescing properties;
+
+    private final DistributionSummary batchSizes;
+
+    private final ConcurrentMap<Long, Batch> batches = new ConcurrentHashMap<>();
+
+    public UserPatchCoalescer(UserService userService, UserProperties userProperties, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.properties = userProperties.getPatchCoalescing();
+        this.batchSizes = DistributionSummary.builder("user.patch.batch.size")
+                .description("Patches applied per transaction by the patch coalescing")
+                .register(meterRegistry);
+    }
+
+    public UserDto updateUser(Long id, JsonPatch userPatchRequest, Long expectedVersion) {
+        if (!properties.isEnabled() || expectedVersion != null) {
+            return userService.updateUser(id, userPatchRequest, expectedVersion);
+        }
+        Patch patch = new Patch(userPatchRequest);
+        Batch batch = batches.compute(id, (key, latest) ->
+                latest != null && latest.add(patch, properties.getMaxBatchSize())
+                        ? latest
+                        : new Batch(latest == null ? null : latest.done, patch, properties.getMaxBatchSize())
+        );
+        if (batch.patches.get(0) == patch) {
+            lead(id, batch);
+        }
+        return join(patch.result);
+    }
+
+    private void lead(Long id, Batch batch) {
+        try {
+            batch.full.await(properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // under the id's lock, so nobody is adding to the batch meanwhile
+        batches.computeIfPresent(id, (key, latest) -> {
+            batch.open = false;
+            return latest;
+        });
+        try {
+            if (batch.previous != null) {
+                batch.previous.join();
+            }
+            apply(id, batch.patches);
+        } finally {
+            batch.patches.forEach(patch -> patch.result.completeExceptionally(
+                    new IllegalStateException("Patch of user with id %d was not applied".formatted(id))
+            ));
+            batch.done.complete(null);
+            batches.remove(id, batch);
+        }
+    }
+
+    private void apply(Long id, List<Patch> patches) {
+        batchSizes.record(patches.size());
+        if (patches.size() == 1) {
+            applyAlone(id, patches.get(0));
+            return;
+        }
+        List<UserPatchOutcome> outcomes;
+        try {
+            outcomes = userService.updateUserInOrder(id, patches.stream().map(Patch::request).toList());
+        } catch (Exception e) {
+            patches.forEach(patch -> applyAlone(id, patch));
+            return;
+        }
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatchOutcome outcome = outcomes.get(i);
+            if (outcome.error() == null) {
+                patches.get(i).result.complete(outcome.user());
+            } else {
+                patches.get(i).result.completeExceptionally(outcome.error());
+            }
+        }
+    }
+
+    private void applyAlone(Long id, Patch patch) {
+        try {
+            patch.result.complete(userService.updateUser(id, patch.request, null));
+        } catch (Exception e) {
+            patch.result.completeExceptionally(e);
+        }
+    }
+
+    @SneakyThrows
+    private static UserDto join(CompletableFuture<UserDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Patch(JsonPatch request, CompletableFuture<UserDto> result) {
+
+        private Patch(JsonPatch request) {
+            this(request, new CompletableFuture<>());
+        }
+
+    }
+
+    /**
+     * Patches of one user waiting to be applied together. Only changed under the map's lock for the
+     * user's id; its leader reads the patches once the batch is closed.
+     */
+    private static final class Batch {
+
+        /**
+         * Completes when the user's previous batch has been applied, {@code null} if there is none.
+         */
+        private final CompletableFuture<Void> previous;
+
+        private final List<Patch> patches = new ArrayList<>();
+
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private boolean open = true;
+
+        private Batch(CompletableFuture<Void> previous, Patch leader, int maxBatchSize) {
+            this.previous = previous;
+            add(leader, maxBatchSize);
+        }
+
+        private boolean add(Patch patch, int maxBatchSize) {
+            if (!open) {
+                return false;
+            }
+            patches.add(patch);
+            if (patches.size() == maxBatchSize) {
+                open = false;
+                full.countDown();
+            }
+            return true;
+        }
+
+    }
+
+}
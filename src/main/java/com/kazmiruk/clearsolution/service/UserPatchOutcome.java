@@ -0,0 +1,10 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+
+/**
+ * Result of one patch of {@link UserService#updateUserInOrder}: the user right after it, or the error
+ * it was rejected with.
+ */
+public record UserPatchOutcome(UserDto user, Exception error) {
+}
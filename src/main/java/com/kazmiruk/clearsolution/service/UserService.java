@@ -3,30 +3,79 @@ package com.kazmiruk.clearsolution.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.cache.UserDtoCache;
 import com.kazmiruk.clearsolution.mapper.UserMapper;
+import com.kazmiruk.clearsolution.model.dto.BirthDateCursor;
+import com.kazmiruk.clearsolution.model.dto.BirthdayCursor;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkUpdateDto;
 import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportReportDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserSelectionDto;
 import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
 import com.kazmiruk.clearsolution.model.exception.BadRequestException;
 import com.kazmiruk.clearsolution.model.exception.FieldValidationException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
 import com.kazmiruk.clearsolution.model.properties.UserProperties;
 import com.kazmiruk.clearsolution.repository.UserRepository;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
+import com.kazmiruk.clearsolution.validation.UserValidator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.Period;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
+/**
+ * Every public operation is timed as {@code user.service}, tagged with the method and the exception
+ * that ended it ({@code none} on success, otherwise e.g. {@code BadRequestException},
+ * {@code NotFoundException} or {@code FieldValidationException}).
+ */
 @Service
+@Timed(value = "user.service", histogram = true)
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private static final int MIN_SEARCH_QUERY_LENGTH = 3;
+
+    private static final int MAX_BIRTHDAY_WINDOW_DAYS = 365;
+
+    private static final int LAST_BIRTHDAY_OF_YEAR = 1231;
+
+    private static final int FIRST_BIRTHDAY_OF_YEAR = 101;
+
+    private static final int LEAP_DAY_BIRTHDAY = 229;
+
     private final UserRepository userRepository;
 
     private final UserMapper userMapper;
@@ -35,76 +84,412 @@ public class UserService {
 
     private final ObjectMapper objectMapper;
 
-    private final Validator validator;
+    private final UserValidator userValidator;
+
+    private final EntityManager entityManager;
+
+    private final UserDtoCache userDtoCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserChangeService userChangeService;
+
+    private final UserAgePolicy userAgePolicy;
 
     @Transactional
     public UserDto createUser(UserDto userRequest) {
-        checkIsUserEmailUnique(userRequest.getEmail());
         checkUserAge(userRequest.getDateOfBirth());
         User user = userMapper.toEntity(userRequest);
-        user = userRepository.save(user);
+        user = saveAndFlushWithUniqueEmail(user);
+        userChangeService.append(user, UserChangeEvent.Type.CREATED);
+        // nothing is cached for a new id yet, but the other instances drop their cached queries on it
+        userDtoCache.evict(user.getId());
         return userMapper.toDto(user);
     }
 
-    private void checkIsUserEmailUnique(String email) {
-        if (userRepository.existsByEmail(email)) {
-            throw new BadRequestException(
-                    "User with email '%s' already exists".formatted(email)
+    /**
+     * Creates users in chunks of {@code user.bulk-import.chunk-size}, one transaction per chunk.
+     * Each chunk is validated up front, checked for taken emails with a single query and inserted
+     * with JDBC batching. A chunk rolled back because an email was taken concurrently is inserted
+     * again without the rows whose emails are taken. A {@code null} row stands for a row the caller
+     * could not parse.
+     */
+    public UserImportReportDto importUsers(Iterator<UserDto> userRequests) {
+        int chunkSize = userProperties.getBulkImport().getChunkSize();
+        List<UserImportResultDto> results = new ArrayList<>();
+        Set<String> importedEmails = new HashSet<>();
+        List<UserDto> chunk = new ArrayList<>(chunkSize);
+        while (userRequests.hasNext()) {
+            chunk.add(userRequests.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(importChunk(results.size(), chunk, importedEmails));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(results.size(), chunk, importedEmails));
+        }
+
+        int created = (int) results.stream()
+                .filter(result -> result.status() == UserImportResultDto.Status.CREATED)
+                .count();
+        return new UserImportReportDto(created, results.size() - created, results);
+    }
+
+    private List<UserImportResultDto> importChunk(int firstRow, List<UserDto> chunk, Set<String> importedEmails) {
+        UserImportResultDto[] results = new UserImportResultDto[chunk.size()];
+        Map<String, Integer> candidates = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Map<String, String> errors = validateImportedUser(chunk.get(i));
+            if (errors.isEmpty() && !importedEmails.add(chunk.get(i).getEmail())) {
+                errors.put("email", "User with email '%s' already exists".formatted(chunk.get(i).getEmail()));
+            }
+            if (errors.isEmpty()) {
+                candidates.put(chunk.get(i).getEmail(), i);
+            } else {
+                results[i] = UserImportResultDto.failed(firstRow + i, errors);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            for (String email : userRepository.findExistingEmails(candidates.keySet())) {
+                int i = candidates.remove(email);
+                results[i] = UserImportResultDto.failed(firstRow + i, Map.of(
+                        "email", "User with email '%s' already exists".formatted(email)
+                ));
+            }
+        }
+
+        List<Integer> rows = candidates.values().stream().sorted().toList();
+        while (!rows.isEmpty()) {
+            try {
+                List<User> users = insertRows(chunk, rows);
+                for (int i = 0; i < rows.size(); i++) {
+                    results[rows.get(i)] = UserImportResultDto.created(firstRow + rows.get(i), users.get(i).getId());
+                }
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+                // an email was taken concurrently after the check and the whole chunk was rolled back,
+                // so the rows whose emails are taken by now fail and the rest are inserted again
+                rows = failConcurrentlyTakenRows(firstRow, chunk, rows, results, importedEmails);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<User> insertRows(List<UserDto> chunk, List<Integer> rows) {
+        return transactionTemplate.execute(status -> {
+            List<User> savedUsers = userRepository.saveAll(
+                    rows.stream().map(i -> userMapper.toEntity(chunk.get(i))).toList()
             );
+            userChangeService.appendAll(savedUsers, UserChangeEvent.Type.CREATED);
+            userRepository.flush();
+            savedUsers.forEach(user -> userDtoCache.evict(user.getId()));
+            entityManager.clear();
+            return savedUsers;
+        });
+    }
+
+    /**
+     * Fails the rows of a rolled back chunk whose emails are taken now and returns the rows left to
+     * insert. If the conflicting row is already gone, nothing tells which row to leave out, so every
+     * row fails and can be retried. The emails of failed rows are no longer counted as imported.
+     */
+    private List<Integer> failConcurrentlyTakenRows(int firstRow, List<UserDto> chunk, List<Integer> rows,
+                                                    UserImportResultDto[] results, Set<String> importedEmails) {
+        Set<String> takenEmails = userRepository.findExistingEmails(
+                rows.stream().map(i -> chunk.get(i).getEmail()).toList()
+        );
+        List<Integer> remainingRows = new ArrayList<>();
+        for (int i : rows) {
+            String email = chunk.get(i).getEmail();
+            if (takenEmails.contains(email)) {
+                importedEmails.remove(email);
+                results[i] = UserImportResultDto.failed(firstRow + i, Map.of(
+                        "email", "User with email '%s' already exists".formatted(email)
+                ));
+            } else if (takenEmails.isEmpty()) {
+                importedEmails.remove(email);
+                results[i] = UserImportResultDto.failed(firstRow + i, Map.of(
+                        "email", "Row was not imported because of a concurrent email conflict, retry it"
+                ));
+            } else {
+                remainingRows.add(i);
+            }
         }
+        return remainingRows;
     }
 
-    private void checkUserAge(LocalDate dateOfBirth) {
-        int userAge = Period.between(dateOfBirth, LocalDate.now()).getYears();
-        if (userAge < userProperties.getAge()) {
+    private Map<String, String> validateImportedUser(UserDto userRequest) {
+        Map<String, String> errors = new HashMap<>();
+        if (userRequest == null) {
+            errors.put("row", "Row is not a valid user JSON object");
+            return errors;
+        }
+        errors.putAll(userValidator.validate(userRequest));
+        if (userRequest.getDateOfBirth() != null) {
+            try {
+                checkUserAge(userRequest.getDateOfBirth());
+            } catch (BadRequestException e) {
+                errors.put("dateOfBirth", e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Flushes the user right away so a taken email surfaces here as a violation of the unique
+     * constraint on {@code users.email}. Unlike a pre-check query, this costs no extra round-trip
+     * and concurrent writers with the same email cannot slip past it.
+     */
+    private User saveAndFlushWithUniqueEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new BadRequestException(
+                        "User with email '%s' already exists".formatted(user.getEmail())
+                );
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void checkUserAge(LocalDate dateOfBirth) {
+        userAgePolicy.checkUserAge(dateOfBirth);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<Long> getAllUsers(Long after, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        // one extra row tells whether there is a next page without a count query
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<User> users = after == null
+                ? userRepository.findAllByOrderByIdAsc(fetchLimit)
+                : userRepository.findAllByIdGreaterThanOrderByIdAsc(after, fetchLimit);
+
+        List<UserDto> content = users.stream()
+                .limit(pageSize)
+                .map(userMapper::toDto)
+                .toList();
+        Long nextCursor = users.size() > pageSize ? content.get(pageSize - 1).getId() : null;
+        return new CursorPageDto<>(content, nextCursor);
+    }
+
+    public int resolvePageSize(Integer limit) {
+        UserProperties.Page page = userProperties.getPage();
+        if (limit == null) {
+            return page.getDefaultLimit();
+        }
+        if (limit < 1 || limit > page.getMaxLimit()) {
             throw new BadRequestException(
-                    "User must be %d years old or older".formatted(userProperties.getAge())
+                    "Limit should be between 1 and %d".formatted(page.getMaxLimit())
             );
         }
+        return limit;
+    }
+
+    /**
+     * Streams every user ordered by id to {@code consumer}. Entities are detached as soon as
+     * they are mapped, so the persistence context does not grow with the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            forEachDetached(users, consumer);
+        }
     }
 
+    /**
+     * Like {@link #streamAllUsers} for users born within {@code [from, to]}, ordered by
+     * {@code (dateOfBirth, id)}.
+     */
     @Transactional(readOnly = true)
-    public Set<UserDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream().map(userMapper::toDto).collect(Collectors.toSet());
+    public void streamUsersByBirthDateRange(LocalDate from, LocalDate to, Consumer<UserDto> consumer) {
+        checkBirthDateRange(from, to);
+        try (Stream<User> users = userRepository.streamAllByDateOfBirthBetween(from, to)) {
+            forEachDetached(users, consumer);
+        }
+    }
+
+    /**
+     * Hibernate applies the cache store mode hint of a streamed query only while opening the stream,
+     * not while its rows are loaded, so the scan keeps the session itself from storing them in the
+     * second-level cache.
+     */
+    private void forEachDetached(Stream<User> users, Consumer<UserDto> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            users.forEach(user -> {
+                consumer.accept(userMapper.toDto(user));
+                entityManager.detach(user);
+            });
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
     }
 
     @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        User user = userRepository.getUserById(id);
-        return userMapper.toDto(user);
+        return userDtoCache.get(id, userId -> userMapper.toDto(userRepository.getUserById(userId)));
     }
 
+    /**
+     * Returns the current version of the user, served from the cache when possible and otherwise read
+     * with a single-column query, so a conditional GET can be answered without loading the row.
+     */
+    @Transactional(readOnly = true)
+    public Long getUserVersion(Long id) {
+        UserDto cachedUser = userDtoCache.getIfPresent(id);
+        if (cachedUser != null) {
+            return cachedUser.getVersion();
+        }
+        return userRepository.findVersionById(id).orElseThrow(() ->
+                new NotFoundException("User with id %d not found".formatted(id))
+        );
+    }
+
+    /**
+     * Replaces the user. A non-null {@code expectedVersion} must match the current version, otherwise
+     * a {@link PreconditionFailedException} is thrown.
+     */
     @Transactional
-    public UserDto updateUser(Long id, UserDto userRequest) {
+    public UserDto updateUser(Long id, UserDto userRequest, Long expectedVersion) {
         User user = userRepository.getUserById(id);
+        checkUserVersion(user, expectedVersion);
         updateUserEntity(userRequest, user);
+        // flushing bumps the version, so the response carries the ETag of the new state
+        userRepository.flush();
+        userChangeService.append(user, UserChangeEvent.Type.UPDATED);
+        userDtoCache.evict(id);
         return userMapper.toDto(user);
     }
 
-    private void updateUserEntity(UserDto userRequest, User targetUser) {
-        if (!targetUser.getEmail().equals(userRequest.getEmail())) {
-            checkIsUserEmailUnique(userRequest.getEmail());
+    /**
+     * Only guards against versions the client already knows to be stale; a writer that commits between
+     * this check and the flush is caught by the version check of the update itself.
+     */
+    public static void checkUserVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException(
+                    "User with id %d has been modified, current version is %d".formatted(
+                            user.getId(), user.getVersion()
+                    )
+            );
         }
+    }
+
+    private void updateUserEntity(UserDto userRequest, User targetUser) {
+        boolean emailChanged = !targetUser.getEmail().equals(userRequest.getEmail());
         checkUserAge(userRequest.getDateOfBirth());
         userMapper.updateEntity(targetUser, userRequest);
+        if (emailChanged) {
+            saveAndFlushWithUniqueEmail(targetUser);
+        }
+    }
+
+    @Transactional
+    public UserDto updateUser(Long id, JsonPatch userPatchRequest, Long expectedVersion) {
+        User user = userRepository.getUserById(id);
+        checkUserVersion(user, expectedVersion);
+        patchUserEntity(user, userPatchRequest);
+        userRepository.flush();
+        userChangeService.append(user, UserChangeEvent.Type.UPDATED);
+        userDtoCache.evict(id);
+        return userMapper.toDto(user);
     }
 
+    /**
+     * Applies the patches to the user one after another in one transaction, flushing after each, so every
+     * patch that succeeds gets its own version and change event as if it had been sent alone. A patch
+     * rejected before anything was written, e.g. by validation, is answered with its error and the next
+     * one goes on; a failure that leaves the transaction unable to commit, such as a taken email, is
+     * thrown.
+     */
     @Transactional
-    public UserDto updateUser(Long id, JsonPatch userPatchRequest) {
+    public List<UserPatchOutcome> updateUserInOrder(Long id, List<JsonPatch> userPatchRequests) {
         User user = userRepository.getUserById(id);
+        List<UserPatchOutcome> outcomes = new ArrayList<>(userPatchRequests.size());
+        for (JsonPatch userPatchRequest : userPatchRequests) {
+            try {
+                patchUserEntity(user, userPatchRequest);
+                userRepository.flush();
+            } catch (Exception e) {
+                if (TransactionAspectSupport.currentTransactionStatus().isRollbackOnly()) {
+                    throw e;
+                }
+                outcomes.add(new UserPatchOutcome(null, e));
+                continue;
+            }
+            userChangeService.append(user, UserChangeEvent.Type.UPDATED);
+            outcomes.add(new UserPatchOutcome(userMapper.toDto(user), null));
+        }
+        userDtoCache.evict(id);
+        return outcomes;
+    }
+
+    void patchUserEntity(User user, JsonPatch userPatchRequest) {
+        TypedUserPatch typedPatch = TypedUserPatch.compile(objectMapper.valueToTree(userPatchRequest));
+        Map<TypedUserPatch.Field, Object> changes = typedPatch == null ? null : typedPatch.stage(user);
+        if (changes == null) {
+            applyGenericPatch(user, userPatchRequest);
+        } else {
+            applyTypedChanges(user, changes);
+        }
+    }
+
+    /**
+     * Validates only the fields the patch touched and writes them straight into the managed entity.
+     */
+    private void applyTypedChanges(User user, Map<TypedUserPatch.Field, Object> changes) {
+        Map<String, String> errors = new HashMap<>();
+        changes.forEach((field, value) -> {
+            String message = userValidator.validateValue(field.property(), value);
+            if (message != null) {
+                errors.put(field.property(), message);
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new FieldValidationException(errors);
+        }
+        if (changes.containsKey(TypedUserPatch.Field.DATE_OF_BIRTH)) {
+            checkUserAge((LocalDate) changes.get(TypedUserPatch.Field.DATE_OF_BIRTH));
+        }
+        boolean emailChanged = changes.containsKey(TypedUserPatch.Field.EMAIL)
+                && !user.getEmail().equals(changes.get(TypedUserPatch.Field.EMAIL));
+        changes.forEach((field, value) -> field.set(user, value));
+        if (emailChanged) {
+            saveAndFlushWithUniqueEmail(user);
+        }
+    }
+
+    void applyGenericPatch(User user, JsonPatch userPatchRequest) {
         UserDto userDto = userMapper.toDto(user);
         userDto = applyPatchToUserDto(userPatchRequest, userDto);
-        Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
-        if (!violations.isEmpty()) {
-            throw new FieldValidationException(violations);
+        Map<String, String> errors = userValidator.validate(userDto);
+        if (!errors.isEmpty()) {
+            throw new FieldValidationException(errors);
         }
         updateUserEntity(userDto, user);
-        return userMapper.toDto(user);
     }
 
     @SneakyThrows
-    private UserDto applyPatchToUserDto(JsonPatch userPathRequest, UserDto targetUser) {
+    UserDto applyPatchToUserDto(JsonPatch userPathRequest, UserDto targetUser) {
         JsonNode patchedUser = userPathRequest.apply(objectMapper.convertValue(targetUser, JsonNode.class));
         return objectMapper.treeToValue(patchedUser, UserDto.class);
     }
@@ -113,16 +498,240 @@ public class UserService {
     public void deleteUser(Long id) {
         User user = userRepository.getUserById(id);
         userRepository.delete(user);
+        userChangeService.append(user, UserChangeEvent.Type.DELETED);
+        userDtoCache.evict(id);
     }
 
-    public List<UserDto> getUsersByBirthDateRange(LocalDate from, LocalDate to) {
+    /**
+     * Finds users whose name, email, phone number or address contains {@code query}, ignoring case,
+     * best matches first. Pages are numbered from 0; the next page number is returned as the cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Integer> searchUsers(String query, Integer page, Integer limit) {
+        String trimmedQuery = query.trim();
+        if (trimmedQuery.length() < MIN_SEARCH_QUERY_LENGTH) {
+            throw new BadRequestException(
+                    "Search query should be at least %d characters".formatted(MIN_SEARCH_QUERY_LENGTH)
+            );
+        }
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0) {
+            throw new BadRequestException("Page should not be negative");
+        }
+        Slice<UserDto> users = userRepository.searchDtos(
+                trimmedQuery,
+                "%" + trimmedQuery.replaceAll("([\\\\%_])", "\\\\$1") + "%",
+                PageRequest.of(pageNumber, resolvePageSize(limit))
+        );
+        return new CursorPageDto<>(users.getContent(), users.hasNext() ? pageNumber + 1 : null);
+    }
+
+    /**
+     * Applies the changes to every selected user with set-based {@code UPDATE}s of at most
+     * {@code user.bulk-mutation.chunk-size} users each, one transaction per chunk, without loading
+     * entities. Versions are bumped, so pending {@code If-Match} updates of these users fail.
+     */
+    public UserBulkResultDto updateUsers(UserBulkUpdateDto request) {
+        UserBulkUpdateDto.Changes changes = request.changes();
+        if (changes.firstName() == null && changes.lastName() == null
+                && changes.address() == null && changes.phoneNumber() == null) {
+            throw new BadRequestException("At least one field should be changed");
+        }
+        int updated = forEachChunk(request.users(), ids -> transactionTemplate.execute(status -> {
+            int chunkUpdated = userRepository.updateAllByIdIn(
+                    ids, changes.firstName(), changes.lastName(), changes.address(), changes.phoneNumber()
+            );
+            List<UserDto> users = userRepository.findDtosByIdIn(ids);
+            userChangeService.appendDtos(users, UserChangeEvent.Type.UPDATED);
+            users.forEach(user -> userDtoCache.evict(user.getId()));
+            return chunkUpdated;
+        }));
+        return new UserBulkResultDto(updated);
+    }
+
+    /**
+     * Deletes every selected user with set-based {@code DELETE}s, chunked like {@link #updateUsers}.
+     */
+    public UserBulkResultDto deleteUsers(UserSelectionDto selection) {
+        int deleted = forEachChunk(selection, ids -> transactionTemplate.execute(status -> {
+            List<UserDto> users = userRepository.findDtosByIdIn(ids);
+            int chunkDeleted = userRepository.deleteAllByIdIn(ids);
+            userChangeService.appendDtos(users, UserChangeEvent.Type.DELETED);
+            users.forEach(user -> userDtoCache.evict(user.getId()));
+            return chunkDeleted;
+        }));
+        return new UserBulkResultDto(deleted);
+    }
+
+    /**
+     * Hands the selected ids to {@code action} in chunks and sums the affected counts. A birth-date
+     * range is walked by id, so users already handled are never selected again.
+     */
+    private int forEachChunk(UserSelectionDto selection, ToIntFunction<List<Long>> action) {
+        int chunkSize = userProperties.getBulkMutation().getChunkSize();
+        boolean byIds = selection.ids() != null && !selection.ids().isEmpty();
+        boolean byRange = selection.from() != null || selection.to() != null;
+        if (byIds == byRange) {
+            throw new BadRequestException("Either ids or a birth date range (from, to) should be given");
+        }
+
+        int affected = 0;
+        if (byIds) {
+            List<Long> ids = selection.ids().stream().filter(Objects::nonNull).distinct().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                affected += action.applyAsInt(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+            }
+            return affected;
+        }
+
+        if (selection.from() == null || selection.to() == null || selection.from().isAfter(selection.to())) {
+            throw new BadRequestException(
+                    "Date FROM ('%s') should be before date TO ('%s')".formatted(selection.from(), selection.to())
+            );
+        }
+        Long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> ids = userRepository.findIdsByDateOfBirthBetween(
+                    selection.from(), selection.to(), after, Limit.of(chunkSize)
+            );
+            if (ids.isEmpty()) {
+                return affected;
+            }
+            affected += action.applyAsInt(ids);
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Returns users born within {@code [from, to]} ordered by {@code (dateOfBirth, id)}. Rows are read
+     * as {@link UserDto} projections straight from the query, so no managed entities are built.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<String> getUsersByBirthDateRange(LocalDate from, LocalDate to, String after, Integer limit) {
+        checkBirthDateRange(from, to);
+        int pageSize = resolvePageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<UserDto> users;
+        if (after == null) {
+            users = userRepository.findDtosByDateOfBirthBetween(from, to, fetchLimit);
+        } else {
+            BirthDateCursor cursor = BirthDateCursor.parse(after);
+            users = userRepository.findDtosByDateOfBirthBetweenAfter(
+                    from, to, cursor.dateOfBirth(), cursor.id(), fetchLimit
+            );
+        }
+
+        if (users.size() <= pageSize) {
+            return new CursorPageDto<>(users, null);
+        }
+        List<UserDto> content = users.subList(0, pageSize);
+        return new CursorPageDto<>(content, BirthDateCursor.of(content.get(pageSize - 1)).toString());
+    }
+
+    /**
+     * Returns users whose birthday falls within the {@code days} days starting {@code from} (today by
+     * default), the next birthday first. Birthdays on Feb 29 are celebrated on Mar 1 in common years.
+     * With {@code age}, only users turning that age in the window are returned; they are exactly the
+     * ones born within a range of dates, so that case is a {@link #getUsersByBirthDateRange} listing.
+     * Otherwise the window is one or, across New Year, two ranges of {@code month * 100 + day}, read
+     * in order from the expression index one after the other.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<String> getUsersByBirthdayWindow(
+            LocalDate from, int days, Integer age, String after, Integer limit
+    ) {
+        if (days < 1 || days > MAX_BIRTHDAY_WINDOW_DAYS) {
+            throw new BadRequestException(
+                    "Days should be between 1 and %d".formatted(MAX_BIRTHDAY_WINDOW_DAYS)
+            );
+        }
+        LocalDate first = from == null ? userAgePolicy.today() : from;
+        LocalDate last = first.plusDays(days - 1);
+        if (age != null) {
+            if (age < 0) {
+                throw new BadRequestException("Age should not be negative");
+            }
+            LocalDate firstDateOfBirth = firstDateOfBirthTurning(age, first);
+            LocalDate lastDateOfBirth = lastDateOfBirthTurning(age, last);
+            // a window of just Feb 29 is empty when that year of birth was a common one
+            if (firstDateOfBirth.isAfter(lastDateOfBirth)) {
+                return new CursorPageDto<>(List.of(), null);
+            }
+            return getUsersByBirthDateRange(firstDateOfBirth, lastDateOfBirth, after, limit);
+        }
+
+        int pageSize = resolvePageSize(limit);
+        // Feb 29 birthdays are celebrated on Mar 1 of common years, so a window starting then includes them
+        int firstBirthday = MonthDay.from(first).equals(MonthDay.of(3, 1)) && !first.isLeapYear()
+                ? LEAP_DAY_BIRTHDAY
+                : birthday(MonthDay.from(first));
+        int lastBirthday = birthday(MonthDay.from(last));
+        List<int[]> ranges = firstBirthday <= lastBirthday
+                ? List.of(new int[]{firstBirthday, lastBirthday})
+                : List.of(new int[]{firstBirthday, LAST_BIRTHDAY_OF_YEAR}, new int[]{FIRST_BIRTHDAY_OF_YEAR, lastBirthday});
+
+        int range = 0;
+        int position = ranges.get(0)[0];
+        long afterId = Long.MIN_VALUE;
+        if (after != null) {
+            BirthdayCursor cursor = BirthdayCursor.parse(after);
+            position = birthday(cursor.birthday());
+            afterId = cursor.id();
+            if (ranges.size() > 1 && position < firstBirthday) {
+                range = 1;
+            }
+        }
+        List<UserDto> users = new ArrayList<>();
+        for (; range < ranges.size() && users.size() <= pageSize; range++) {
+            int rangeFrom = Math.max(position, ranges.get(range)[0]);
+            users.addAll(userRepository.findDtosByBirthdayBetween(
+                    rangeFrom, ranges.get(range)[1], rangeFrom == position ? afterId : Long.MIN_VALUE,
+                    Limit.of(pageSize + 1 - users.size())
+            ));
+            position = Integer.MIN_VALUE;
+        }
+
+        if (users.size() <= pageSize) {
+            return new CursorPageDto<>(users, null);
+        }
+        List<UserDto> content = users.subList(0, pageSize);
+        return new CursorPageDto<>(content, BirthdayCursor.of(content.get(pageSize - 1)).toString());
+    }
+
+    private static int birthday(MonthDay monthDay) {
+        return monthDay.getMonthValue() * 100 + monthDay.getDayOfMonth();
+    }
+
+    /**
+     * The birthday on which someone born on {@code dateOfBirth} turns {@code age}, Mar 1 for Feb 29
+     * in common years.
+     */
+    private static LocalDate birthdayTurning(int age, LocalDate dateOfBirth) {
+        LocalDate birthday = dateOfBirth.plusYears(age);
+        return birthday.getDayOfMonth() < dateOfBirth.getDayOfMonth() ? birthday.plusDays(1) : birthday;
+    }
+
+    private static LocalDate firstDateOfBirthTurning(int age, LocalDate from) {
+        LocalDate dateOfBirth = from.minusYears(age).minusDays(1);
+        while (birthdayTurning(age, dateOfBirth).isBefore(from)) {
+            dateOfBirth = dateOfBirth.plusDays(1);
+        }
+        return dateOfBirth;
+    }
+
+    private static LocalDate lastDateOfBirthTurning(int age, LocalDate to) {
+        LocalDate dateOfBirth = to.minusYears(age).plusDays(1);
+        while (birthdayTurning(age, dateOfBirth).isAfter(to)) {
+            dateOfBirth = dateOfBirth.minusDays(1);
+        }
+        return dateOfBirth;
+    }
+
+    public static void checkBirthDateRange(LocalDate from, LocalDate to) {
         if (from.isAfter(to)) {
             throw new BadRequestException(
                     "Date FROM ('%s') should be before date TO ('%s')".formatted(from, to)
             );
         }
-        return userRepository.findAllByDateOfBirthBetween(from, to).stream()
-                .map(userMapper::toDto)
-                .toList();
     }
 }
@@ -2,16 +2,24 @@ package com.kazmiruk.clearsolution.util.exception;
 
 import com.kazmiruk.clearsolution.model.dto.ErrorDto;
 import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.ConflictException;
 import com.kazmiruk.clearsolution.model.exception.FieldValidationException;
 import com.kazmiruk.clearsolution.model.exception.NotFoundException;
-import org.hibernate.validator.internal.engine.path.PathImpl;
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
+import com.kazmiruk.clearsolution.model.exception.ServiceUnavailableException;
+import com.kazmiruk.clearsolution.model.exception.TooManyRequestsException;
+import com.kazmiruk.clearsolution.model.exception.UnprocessableEntityException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -58,19 +66,79 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler(FieldValidationException.class)
-    public ResponseEntity<ErrorDto<Map<String, String>>> handleFieldsValidationError(FieldValidationException e) {
-        Map<String, String> errors = new HashMap<>();
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorDto<String>> handlePreconditionFailedException(PreconditionFailedException e) {
+        ErrorDto<String> errorResponse = new ErrorDto<>(
+                LocalDateTime.now(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                e.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
 
-        e.getErrors().forEach(violation -> {
-            String fieldName = ((PathImpl) violation.getPropertyPath()).getLeafNode().getName();
-            errors.put(fieldName, violation.getMessage());
-        });
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorDto<String>> handleConflictException(ConflictException e) {
+        ErrorDto<String> errorResponse = new ErrorDto<>(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                e.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UnprocessableEntityException.class)
+    public ResponseEntity<ErrorDto<String>> handleUnprocessableEntityException(UnprocessableEntityException e) {
+        ErrorDto<String> errorResponse = new ErrorDto<>(
+                LocalDateTime.now(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                e.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorDto<String>> handleTooManyRequestsException(TooManyRequestsException e) {
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorDto<String>> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e.getRetryAfter());
+    }
+
+    private static ResponseEntity<ErrorDto<String>> retryLater(HttpStatus status, String message, Duration retryAfter) {
+        ErrorDto<String> errorResponse = new ErrorDto<>(
+                LocalDateTime.now(),
+                status.value(),
+                message
+        );
+        // whole seconds, rounded up so a client retrying right on time is let through
+        long seconds = Math.max(1, retryAfter.plusNanos(999_999_999).toSeconds());
+        // JSON even for requests that only accept a stream, e.g. a rejected NDJSON stream of all users
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDto<String>> handleOptimisticLockingFailureException(
+            ObjectOptimisticLockingFailureException e
+    ) {
+        ErrorDto<String> errorResponse = new ErrorDto<>(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "User was modified concurrently, reload it and retry"
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(FieldValidationException.class)
+    public ResponseEntity<ErrorDto<Map<String, String>>> handleFieldsValidationError(FieldValidationException e) {
         ErrorDto<Map<String, String>> errorResponse = new ErrorDto<>(
                 LocalDateTime.now(),
                 HttpStatus.BAD_REQUEST.value(),
-                errors
+                e.getErrors()
         );
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
@@ -0,0 +1,40 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the Bean Validation engine, which reads the constraint metadata of {@link UserDto} and
+ * interpolates each message on every call.
+ */
+@RequiredArgsConstructor
+public class BeanUserValidator implements UserValidator {
+
+    private final Validator validator;
+
+    @Override
+    public Map<String, String> validate(UserDto user) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation ->
+                errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage())
+        );
+        return errors;
+    }
+
+    @Override
+    public String validateValue(String property, Object value) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validateValue(UserDto.class, property, value);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+}
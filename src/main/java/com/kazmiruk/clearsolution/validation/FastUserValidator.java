@@ -0,0 +1,326 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hand-written equivalent of the constraints on {@link UserDto}: plain checks on the getters, with no
+ * metadata lookups or reflection per call and no allocation for a valid user. Messages are
+ * interpolated by the Bean Validation engine once per locale of {@link LocaleContextHolder}, the one
+ * it interpolates {@link BeanUserValidator}'s messages in, and kept for the next errors in that locale.
+ * <p>
+ * Emails are checked by the rules of Hibernate Validator's {@code @Email} for the plain ASCII form
+ * nearly every address takes; quoted local parts, IP literals and internationalized addresses are
+ * handed to the engine. The constructor fails if the constraints on {@link UserDto} no longer match
+ * the ones checked here.
+ */
+public class FastUserValidator implements UserValidator {
+
+    private static final String EMAIL = "email";
+
+    private static final String FIRST_NAME = "firstName";
+
+    private static final String LAST_NAME = "lastName";
+
+    private static final String DATE_OF_BIRTH = "dateOfBirth";
+
+    private static final String PHONE_NUMBER = "phoneNumber";
+
+    private static final String PHONE_NUMBER_REGEXP = "0\\d{9}";
+
+    private static final int PHONE_NUMBER_LENGTH = 10;
+
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+
+    private static final int MAX_DOMAIN_LENGTH = 255;
+
+    private static final int MAX_DOMAIN_LABEL_LENGTH = 63;
+
+    private static final String LOCAL_PART_SPECIALS = "!#$%&'*+/=?^_`{|}~-";
+
+    private static final String DOMAIN_SPECIALS = "!#$%&'*+/=?^_`{|}~";
+
+    // locales come from request headers, so only the most used ones are kept
+    private static final int MAX_LOCALES = 32;
+
+    private final Validator validator;
+
+    private final Length firstNameLength;
+
+    private final Length lastNameLength;
+
+    private final Cache<Locale, Messages> messages = Caffeine.newBuilder()
+            .maximumSize(MAX_LOCALES)
+            .build();
+
+    private final Function<Locale, Messages> resolveMessages = locale -> resolveMessages();
+
+    public FastUserValidator(Validator validator) {
+        this.validator = validator;
+        Map<String, PropertyDescriptor> properties = validator.getConstraintsForClass(UserDto.class)
+                .getConstrainedProperties().stream()
+                .collect(Collectors.toMap(PropertyDescriptor::getPropertyName, property -> property));
+        checkConstraints(properties);
+        this.firstNameLength = length(properties.get(FIRST_NAME));
+        this.lastNameLength = length(properties.get(LAST_NAME));
+        // fails here rather than on the first invalid user if a constraint accepts its invalid value
+        messages();
+    }
+
+    @Override
+    public Map<String, String> validate(UserDto user) {
+        Map<String, String> errors = Map.of();
+        errors = addError(errors, EMAIL, validateEmail(user.getEmail()));
+        errors = addError(errors, FIRST_NAME, validateFirstName(user.getFirstName()));
+        errors = addError(errors, LAST_NAME, validateLastName(user.getLastName()));
+        errors = addError(errors, DATE_OF_BIRTH, validateDateOfBirth(user.getDateOfBirth()));
+        errors = addError(errors, PHONE_NUMBER, validatePhoneNumber(user.getPhoneNumber()));
+        return errors;
+    }
+
+    @Override
+    public String validateValue(String property, Object value) {
+        return switch (property) {
+            case EMAIL -> validateEmail((String) value);
+            case FIRST_NAME -> validateFirstName((String) value);
+            case LAST_NAME -> validateLastName((String) value);
+            case DATE_OF_BIRTH -> validateDateOfBirth(value);
+            case PHONE_NUMBER -> validatePhoneNumber((String) value);
+            case "id", "address", "version" -> null;
+            default -> throw new IllegalArgumentException("UserDto has no property " + property);
+        };
+    }
+
+    private static Map<String, String> addError(Map<String, String> errors, String property, String message) {
+        if (message == null) {
+            return errors;
+        }
+        if (errors.isEmpty()) {
+            errors = new HashMap<>();
+        }
+        errors.put(property, message);
+        return errors;
+    }
+
+    private String validateEmail(String email) {
+        if (email == null || email.isEmpty()) {
+            return messages().emailEmpty();
+        }
+        if (!isPlainAscii(email)) {
+            return validateWithEngine(EMAIL, email);
+        }
+        return isWellFormedEmail(email) ? null : messages().email();
+    }
+
+    private String validateFirstName(String firstName) {
+        return firstNameLength.isValid(firstName) ? null : messages().firstName();
+    }
+
+    private String validateLastName(String lastName) {
+        return lastNameLength.isValid(lastName) ? null : messages().lastName();
+    }
+
+    private String validateDateOfBirth(Object dateOfBirth) {
+        return dateOfBirth == null ? messages().dateOfBirth() : null;
+    }
+
+    private String validatePhoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        if (phoneNumber.length() != PHONE_NUMBER_LENGTH || phoneNumber.charAt(0) != '0') {
+            return messages().phoneNumber();
+        }
+        for (int i = 1; i < PHONE_NUMBER_LENGTH; i++) {
+            if (!isDigit(phoneNumber.charAt(i))) {
+                return messages().phoneNumber();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the address has none of the forms left to the engine: quoted local parts, IP literals
+     * and characters outside ASCII.
+     */
+    private static boolean isPlainAscii(String email) {
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c >= 0x80 || c == '"' || c == '[') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A local part of dot-separated atoms of at most 64 characters, then after the last {@code @} a
+     * domain of at most 255 characters made of non-empty labels of at most 63 characters that neither
+     * start nor end with a dash.
+     */
+    private static boolean isWellFormedEmail(String email) {
+        int at = email.lastIndexOf('@');
+        if (at <= 0 || at > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+        boolean afterDot = true;
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (afterDot) {
+                    return false;
+                }
+                afterDot = true;
+            } else if (isAlphanumeric(c) || LOCAL_PART_SPECIALS.indexOf(c) >= 0) {
+                afterDot = false;
+            } else {
+                return false;
+            }
+        }
+        if (afterDot) {
+            return false;
+        }
+        int length = email.length();
+        if (length - at - 1 > MAX_DOMAIN_LENGTH) {
+            return false;
+        }
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= length; i++) {
+            char c = i == length ? '.' : email.charAt(i);
+            if (c == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0 || labelLength > MAX_DOMAIN_LABEL_LENGTH
+                        || email.charAt(labelStart) == '-' || email.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isAlphanumeric(c) && c != '-' && DOMAIN_SPECIALS.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private String validateWithEngine(String property, Object value) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validateValue(UserDto.class, property, value);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private Messages messages() {
+        return messages.get(LocaleContextHolder.getLocale(), resolveMessages);
+    }
+
+    /**
+     * Has the engine interpolate each message in the locale of the calling thread.
+     */
+    private Messages resolveMessages() {
+        return new Messages(
+                message(EMAIL, ""),
+                message(EMAIL, "@"),
+                message(FIRST_NAME, firstNameLength.invalidValue()),
+                message(LAST_NAME, lastNameLength.invalidValue()),
+                message(DATE_OF_BIRTH, null),
+                message(PHONE_NUMBER, "")
+        );
+    }
+
+    private String message(String property, Object invalidValue) {
+        String message = validateWithEngine(property, invalidValue);
+        if (message == null) {
+            throw new IllegalStateException("%s of UserDto accepts %s".formatted(property, invalidValue));
+        }
+        return message;
+    }
+
+    private static Length length(PropertyDescriptor property) {
+        Map<String, Object> attributes = property.getConstraintDescriptors().iterator().next().getAttributes();
+        int min = (int) attributes.get("min");
+        int max = (int) attributes.get("max");
+        return new Length(min, max);
+    }
+
+    private static void checkConstraints(Map<String, PropertyDescriptor> properties) {
+        Map<String, Set<Class<? extends Annotation>>> expected = Map.of(
+                EMAIL, Set.of(NotEmpty.class, Email.class),
+                FIRST_NAME, Set.of(Size.class),
+                LAST_NAME, Set.of(Size.class),
+                DATE_OF_BIRTH, Set.of(NotNull.class),
+                PHONE_NUMBER, Set.of(Pattern.class)
+        );
+        Map<String, Set<Class<? extends Annotation>>> actual = properties.values().stream()
+                .collect(Collectors.toMap(
+                        PropertyDescriptor::getPropertyName,
+                        property -> property.getConstraintDescriptors().stream()
+                                .map(constraint -> constraint.getAnnotation().annotationType())
+                                .collect(Collectors.toSet())
+                ));
+        if (!actual.equals(expected)) {
+            throw constraintsChanged();
+        }
+        ConstraintDescriptor<?> phoneNumber = properties.get(PHONE_NUMBER).getConstraintDescriptors().iterator().next();
+        boolean defaultEmail = properties.get(EMAIL).getConstraintDescriptors().stream()
+                .filter(constraint -> constraint.getAnnotation() instanceof Email)
+                .allMatch(constraint -> ".*".equals(constraint.getAttributes().get("regexp")));
+        if (!PHONE_NUMBER_REGEXP.equals(phoneNumber.getAttributes().get("regexp"))
+                || ((Object[]) phoneNumber.getAttributes().get("flags")).length > 0
+                || !defaultEmail) {
+            throw constraintsChanged();
+        }
+    }
+
+    private static IllegalStateException constraintsChanged() {
+        return new IllegalStateException(
+                "Constraints on UserDto changed, update FastUserValidator or use user.validation.mode=bean"
+        );
+    }
+
+    private record Length(int min, int max) {
+
+        private boolean isValid(String value) {
+            return value == null || (value.length() >= min && value.length() <= max);
+        }
+
+        private String invalidValue() {
+            return "x".repeat(min > 0 ? min - 1 : max + 1);
+        }
+
+    }
+
+    private record Messages(
+            String emailEmpty,
+            String email,
+            String firstName,
+            String lastName,
+            String dateOfBirth,
+            String phoneNumber
+    ) {
+    }
+
+}
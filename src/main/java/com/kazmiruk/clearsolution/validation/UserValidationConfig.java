@@ -0,0 +1,19 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UserValidationConfig {
+
+    @Bean
+    public UserValidator userValidator(UserProperties userProperties, Validator validator) {
+        return switch (userProperties.getValidation().getMode()) {
+            case BEAN -> new BeanUserValidator(validator);
+            case FAST -> new FastUserValidator(validator);
+        };
+    }
+
+}
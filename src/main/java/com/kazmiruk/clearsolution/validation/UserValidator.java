@@ -0,0 +1,26 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+
+import java.util.Map;
+
+/**
+ * Checks a {@link UserDto} against the constraints declared on it. Errors come back keyed by property
+ * with the same messages Bean Validation interpolates, which is what {@code GlobalExceptionHandler}
+ * renders. Selected with {@code user.validation.mode}.
+ */
+public interface UserValidator {
+
+    /**
+     * @return the first violated constraint's message per property, empty if the user is valid
+     */
+    Map<String, String> validate(UserDto user);
+
+    /**
+     * Checks {@code value} as if it were the given property of a {@link UserDto}.
+     *
+     * @return the message of the violated constraint, or {@code null} if the value is valid
+     */
+    String validateValue(String property, Object value);
+
+}
@@ -0,0 +1,4 @@
+-- Index behind the keyset-paginated birth-date range query, ordered by (date_of_birth, id). Databases
+-- that ran ddl-auto after the index was mapped already have it.
+
+create index if not exists idx_users_date_of_birth_id on users (date_of_birth, id);
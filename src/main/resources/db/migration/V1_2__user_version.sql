@@ -0,0 +1,4 @@
+-- Optimistic locking version of User, also the ETag of a user. Existing rows start at 0. Databases
+-- that ran ddl-auto after the column was mapped already have it.
+
+alter table users add column if not exists version bigint default 0 not null;
@@ -0,0 +1,15 @@
+-- Outbox of the user change feed; the id of an event is its position in the feed. Databases that ran
+-- ddl-auto after the outbox was mapped already have it.
+
+create sequence if not exists user_change_events_seq start with 1 increment by 1;
+
+create table if not exists user_change_events
+(
+    id          bigint                      not null,
+    user_id     bigint                      not null,
+    type        varchar(10)                 not null check (type in ('CREATED', 'UPDATED', 'DELETED')),
+    version     bigint                      not null,
+    occurred_at timestamp(6) with time zone not null,
+    payload     text,
+    primary key (id)
+);
@@ -0,0 +1,17 @@
+-- Schema as Hibernate generated it for the application before migrations were introduced. Databases
+-- created by ddl-auto then are baselined at this version (spring.flyway.baseline-on-migrate), skip
+-- it and get every later migration.
+
+create sequence users_seq start with 1 increment by 50;
+
+create table users
+(
+    id            bigint       not null,
+    email         varchar(70)  not null unique,
+    first_name    varchar(50)  not null,
+    last_name     varchar(50)  not null,
+    date_of_birth date         not null,
+    address       varchar(255),
+    phone_number  char(10),
+    primary key (id)
+);
@@ -0,0 +1,19 @@
+-- Trigram index behind GET /api/v1/users/search. One expression index over all searchable columns
+-- serves "contains" (ILIKE '%...%') lookups of three or more characters and word_similarity ranking.
+
+create extension if not exists pg_trgm;
+
+-- Index expressions must be immutable; concatenating through text parameters keeps it so, and
+-- Postgres inlines the function, so queries calling it match the index.
+create function users_search_text(first_name text, last_name text, email text, phone_number text, address text)
+    returns text
+    language sql
+    immutable
+    parallel safe
+as
+$$
+select $1 || ' ' || $2 || ' ' || $3 || ' ' || coalesce($4, '') || ' ' || coalesce($5, '')
+$$;
+
+create index idx_users_search_trgm on users
+    using gin (users_search_text(first_name, last_name, email, phone_number, address) gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- Hands out user ids in blocks of 500 (User.id allocationSize), so a full JDBC batch or import chunk
+-- takes one or two sequence calls instead of ten. Hibernate's pooled optimizer treats the value it
+-- reads as the top of its block. An instance still running with allocationSize 50 would take the 50
+-- ids below a value read after this change, while a new instance takes the 500 below it, so the two
+-- collide: stop every instance before this migration runs, it cannot go out in a rolling deploy.
+
+alter sequence users_seq increment by 500;
@@ -0,0 +1,5 @@
+-- Expression index behind GET /api/v1/users/birthdays: the month and day of birth as one number
+-- (Dec 31 is 1231), so a window of days is one or two range scans whatever the years of birth.
+-- The expression is the one Hibernate renders for the query in UserRepository, so it matches.
+
+create index idx_users_birthday_id on users ((extract(month from date_of_birth) * 100 + extract(day from date_of_birth)), id);
@@ -0,0 +1,15 @@
+-- Responses of POST /api/v1/users requests sent with an Idempotency-Key, for user.idempotency.store=jdbc.
+-- A row without a status is a request still being executed; rows are deleted once they expire.
+
+create table idempotency_keys
+(
+    idempotency_key varchar(300)                not null,
+    fingerprint     char(64)                    not null,
+    status          integer,
+    e_tag           varchar(100),
+    body            text,
+    expires_at      timestamp(6) with time zone not null,
+    primary key (idempotency_key)
+);
+
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,10 @@
+-- Locked by every transaction appending user change events until it commits, so that events take
+-- their ids from user_change_events_seq in commit order.
+
+create table user_change_feed
+(
+    id smallint not null,
+    primary key (id)
+);
+
+insert into user_change_feed (id) values (1);
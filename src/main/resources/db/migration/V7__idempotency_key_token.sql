@@ -0,0 +1,5 @@
+-- Token of the request that claimed the key, which recording and releasing the claim must match, so a
+-- request outliving its lease cannot touch the claim of the retry that took the key over. Rows claimed
+-- before this migration have none and simply run out their lease or retention.
+
+alter table idempotency_keys add column token uuid;
@@ -0,0 +1,294 @@
+package com.kazmiruk.clearsolution.reactive;
+
+import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.controller.UserEntityTag;
+import com.kazmiruk.clearsolution.format.BinaryFormatConfig;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkUpdateDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangePageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportRequestDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportReportDto;
+import com.kazmiruk.clearsolution.model.dto.UserSelectionDto;
+import com.kazmiruk.clearsolution.service.UserChangeService;
+import com.kazmiruk.clearsolution.service.UserExportService;
+import com.kazmiruk.clearsolution.service.UserPatchCoalescer;
+import com.kazmiruk.clearsolution.service.UserService;
+import com.kazmiruk.clearsolution.validation.UserValidator;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * The users API of {@code UserController} on WebFlux, active with the {@code reactive} profile. Reads
+ * and single-user writes run on R2DBC without blocking; JSON Patch, bulk, search, export and change
+ * feed endpoints call the JPA services on the bounded elastic scheduler. NDJSON bulk import is only
+ * served by the servlet variant.
+ */
+@RestController
+@RequestMapping("/api/v1/users")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    private final UserService userService;
+
+    private final UserPatchCoalescer userPatchCoalescer;
+
+    private final UserChangeService userChangeService;
+
+    private final UserExportService userExportService;
+
+    private final UserValidator userValidator;
+
+    /**
+     * Checks {@code @Valid} user bodies with the configured {@link UserValidator}; errors are reported
+     * as {@code WebExchangeBindException}.
+     */
+    @InitBinder("userDto")
+    public void initUserDtoBinder(WebDataBinder binder) {
+        binder.setValidator(Validator.forInstanceOf(UserDto.class, (user, errors) ->
+                userValidator.validate(user).forEach((field, message) -> errors.rejectValue(field, "invalid", message))
+        ));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserDto>> createUser(@Valid @RequestBody UserDto userRequest) {
+        return reactiveUserService.createUser(userRequest)
+                .map(userResponse -> ResponseEntity.status(HttpStatus.CREATED)
+                        .eTag(UserEntityTag.of(userResponse.getVersion()))
+                        .body(userResponse));
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<UserImportReportDto>> importUsers(@RequestBody List<UserDto> userRequests) {
+        return blocking(() -> ResponseEntity.ok(userService.importUsers(userRequests.iterator())));
+    }
+
+    @PostMapping("/bulk-update")
+    public Mono<ResponseEntity<UserBulkResultDto>> updateUsers(@Valid @RequestBody UserBulkUpdateDto request) {
+        return blocking(() -> ResponseEntity.ok(userService.updateUsers(request)));
+    }
+
+    @PostMapping("/bulk-delete")
+    public Mono<ResponseEntity<UserBulkResultDto>> deleteUsers(@RequestBody UserSelectionDto selection) {
+        return blocking(() -> ResponseEntity.ok(userService.deleteUsers(selection)));
+    }
+
+    @GetMapping(produces = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE
+    })
+    public Mono<ResponseEntity<CursorPageDto<Long>>> getAllUsers(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return reactiveUserService.getAllUsers(after, limit)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> streamAllUsers() {
+        return reactiveUserService.streamAllUsers();
+    }
+
+    /**
+     * Starts a background export; poll the returned location until the export is completed, then
+     * download its file.
+     */
+    @PostMapping("/exports")
+    public Mono<ResponseEntity<UserExportDto>> submitExport(@Valid @RequestBody UserExportRequestDto request) {
+        return blocking(() -> {
+            UserExportDto export = userExportService.submitExport(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/users/exports/" + export.id()))
+                    .body(export);
+        });
+    }
+
+    @GetMapping("/exports/{id}")
+    public Mono<ResponseEntity<UserExportDto>> getExport(@PathVariable UUID id) {
+        return blocking(() -> ResponseEntity.ok(userExportService.getExport(id)));
+    }
+
+    @GetMapping("/exports/{id}/file")
+    public Mono<ResponseEntity<Resource>> getExportFile(@PathVariable UUID id) {
+        return blocking(() -> {
+            Path file = userExportService.getExportFile(id);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/gzip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(file.getFileName().toString())
+                            .build()
+                            .toString())
+                    .body(new FileSystemResource(file));
+        });
+    }
+
+    @DeleteMapping("/exports/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteExport(@PathVariable UUID id) {
+        return blocking(() -> {
+            userExportService.deleteExport(id);
+            return null;
+        });
+    }
+
+    /**
+     * With {@code If-None-Match} only the user's version is looked up; when it still matches, 304 is
+     * returned without mapping or serializing the user.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserDto>> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ServerWebExchange exchange
+    ) {
+        if (ifNoneMatch == null) {
+            return getUser(id);
+        }
+        return reactiveUserService.getUserVersion(id)
+                .flatMap(version -> {
+                    String eTag = UserEntityTag.of(version);
+                    return exchange.checkNotModified(eTag)
+                            ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<UserDto>build())
+                            : getUser(id);
+                });
+    }
+
+    private Mono<ResponseEntity<UserDto>> getUser(Long id) {
+        return reactiveUserService.getUserById(id)
+                .map(userResponse -> ResponseEntity.ok()
+                        .eTag(UserEntityTag.of(userResponse.getVersion()))
+                        .body(userResponse));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserDto>> updateUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserDto userRequest
+    ) {
+        return Mono.defer(() -> reactiveUserService.updateUser(id, userRequest, UserEntityTag.expectedVersion(ifMatch)))
+                .map(userResponse -> ResponseEntity.ok()
+                        .eTag(UserEntityTag.of(userResponse.getVersion()))
+                        .body(userResponse));
+    }
+
+    @PatchMapping(path = "/{id}", consumes = "application/json-patch+json")
+    public Mono<ResponseEntity<UserDto>> updateUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonPatch userPatchBody
+    ) {
+        return blocking(() -> {
+            UserDto userResponse = userPatchCoalescer.updateUser(id, userPatchBody, UserEntityTag.expectedVersion(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(UserEntityTag.of(userResponse.getVersion()))
+                    .body(userResponse);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUser(
+            @PathVariable Long id
+    ) {
+        return reactiveUserService.deleteUser(id);
+    }
+
+    /**
+     * Change feed for incremental sync: returns the changes after position {@code since}. When there
+     * are none yet and {@code wait} is set, the response is held back until one arrives or the poll
+     * times out with an empty page; no thread is held meanwhile.
+     */
+    @GetMapping("/changes")
+    public Mono<UserChangePageDto> getChanges(
+            @RequestParam("since") long since,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "wait", defaultValue = "true") boolean wait
+    ) {
+        if (!wait) {
+            return blocking(() -> userChangeService.getChanges(since, limit));
+        }
+        return blocking(() -> userChangeService.awaitChanges(since, limit))
+                .flatMap(Mono::fromFuture);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<CursorPageDto<Integer>>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return blocking(() -> ResponseEntity.ok(userService.searchUsers(query, page, limit)));
+    }
+
+    @GetMapping("/birthdays")
+    public Mono<ResponseEntity<CursorPageDto<String>>> getUsersByBirthdayWindow(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+            @RequestParam(value = "days", defaultValue = "7") int days,
+            @RequestParam(value = "age", required = false) Integer age,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return blocking(() -> ResponseEntity.ok(userService.getUsersByBirthdayWindow(from, days, age, after, limit)));
+    }
+
+    @GetMapping("/byBirthDateRange")
+    public Mono<ResponseEntity<CursorPageDto<String>>> getUsersByBirthDateRange(
+            @RequestParam("from") @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+            @RequestParam("to") @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return reactiveUserService.getUsersByBirthDateRange(from, to, after, limit)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Runs a call into the JPA services on a thread that may block.
+     */
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.kazmiruk.clearsolution.reactive;
+
+import com.kazmiruk.clearsolution.model.dto.BirthDateCursor;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.entity.UserChangeFeed;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * R2DBC access to the {@code users} table written as plain SQL over the schema the Flyway migrations
+ * create. Rows are read into unmanaged {@link User} instances so {@code UserMapper} maps them exactly
+ * like the JPA side does.
+ * <p>
+ * Ids come from {@code users_seq} in blocks of 500 like Hibernate's pooled optimizer takes them, so
+ * servlet and reactive instances can write to the same database.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    /**
+     * Ids handed out per {@code users_seq} call, the {@code allocationSize} of {@link User#getId()}.
+     */
+    private static final int ID_BLOCK_SIZE = 500;
+
+    private static final String COLUMNS =
+            "id, email, first_name, last_name, date_of_birth, address, phone_number, version";
+
+    private final DatabaseClient databaseClient;
+
+    private final Object idLock = new Object();
+
+    private long nextId = 1;
+
+    private long lastId;
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from users where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<Long> findVersionById(Long id) {
+        return databaseClient.sql("select version from users where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    /**
+     * Returns up to {@code limit} users ordered by id, starting after {@code after} if given.
+     */
+    public Flux<User> findAll(Long after, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from users where id > :after order by id limit :limit")
+                .bind("after", after == null ? Long.MIN_VALUE : after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    /**
+     * Every user ordered by id. Rows are requested from the connection as the subscriber consumes them.
+     */
+    public Flux<User> streamAll() {
+        return databaseClient.sql("select " + COLUMNS + " from users order by id")
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    /**
+     * Returns up to {@code limit} users born within {@code [from, to]} ordered by
+     * {@code (dateOfBirth, id)}, starting after {@code after} if given.
+     */
+    public Flux<User> findByDateOfBirthBetween(LocalDate from, LocalDate to, BirthDateCursor after, int limit) {
+        if (after == null) {
+            return databaseClient.sql("""
+                            select %s from users
+                            where date_of_birth between :from and :to
+                            order by date_of_birth, id
+                            limit :limit""".formatted(COLUMNS))
+                    .bind("from", from)
+                    .bind("to", to)
+                    .bind("limit", limit)
+                    .map(ReactiveUserRepository::toUser)
+                    .all();
+        }
+        return databaseClient.sql("""
+                        select %s from users
+                        where date_of_birth between :from and :to
+                          and date_of_birth >= :afterDate
+                          and (date_of_birth > :afterDate or id > :afterId)
+                        order by date_of_birth, id
+                        limit :limit""".formatted(COLUMNS))
+                .bind("from", from)
+                .bind("to", to)
+                .bind("afterDate", after.dateOfBirth())
+                .bind("afterId", after.id())
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    /**
+     * Inserts the user with a newly allocated id and version 0, both set on {@code user}.
+     */
+    public Mono<User> insert(User user) {
+        return nextId().flatMap(id -> bindUser(databaseClient.sql("""
+                        insert into users (%s)
+                        values (:id, :email, :firstName, :lastName, :dateOfBirth, :address, :phoneNumber, 0)"""
+                        .formatted(COLUMNS)), user)
+                .bind("id", id)
+                .then()
+                .then(Mono.fromSupplier(() -> {
+                    user.setId(id);
+                    user.setVersion(0L);
+                    return user;
+                })));
+    }
+
+    /**
+     * Writes {@code user} if its row is still at {@code version} and bumps the version on both.
+     *
+     * @return the number of updated rows, 0 if the user was changed or deleted concurrently
+     */
+    public Mono<Long> update(User user, long version) {
+        return bindUser(databaseClient.sql("""
+                        update users
+                        set email = :email, first_name = :firstName, last_name = :lastName,
+                            date_of_birth = :dateOfBirth, address = :address, phone_number = :phoneNumber,
+                            version = version + 1
+                        where id = :id and version = :version"""), user)
+                .bind("id", user.getId())
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(updated -> {
+                    if (updated > 0) {
+                        user.setVersion(version + 1);
+                    }
+                });
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from users where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Takes the feed lock first, like {@code UserChangeService} does before commit, so it must be the
+     * last statement of the transaction: the lock is held until it commits.
+     */
+    public Mono<Void> insertChangeEvent(UserChangeEvent event) {
+        Mono<Void> lockFeed = databaseClient.sql("select id from user_change_feed where id = :id for update")
+                .bind("id", UserChangeFeed.ID)
+                .then();
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        insert into user_change_events (id, user_id, type, version, occurred_at, payload)
+                        values (nextval('user_change_events_seq'), :userId, :type, :version, :occurredAt, :payload)""")
+                .bind("userId", event.getUserId())
+                .bind("type", event.getType().name())
+                .bind("version", event.getVersion())
+                .bind("occurredAt", event.getOccurredAt());
+        return lockFeed.then(bindNullable(spec, "payload", event.getPayload()).then());
+    }
+
+    /**
+     * Takes the next id of the current block, or reads the top of a new block from {@code users_seq}.
+     */
+    private Mono<Long> nextId() {
+        synchronized (idLock) {
+            if (nextId <= lastId) {
+                return Mono.just(nextId++);
+            }
+        }
+        return databaseClient.sql("select nextval('users_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(top -> {
+                    // a fresh sequence starts at 1, below a full block
+                    long first = Math.max(1, top - ID_BLOCK_SIZE + 1);
+                    synchronized (idLock) {
+                        nextId = first + 1;
+                        lastId = top;
+                    }
+                    return first;
+                });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindUser(DatabaseClient.GenericExecuteSpec spec, User user) {
+        spec = spec.bind("email", user.getEmail())
+                .bind("firstName", user.getFirstName())
+                .bind("lastName", user.getLastName())
+                .bind("dateOfBirth", user.getDateOfBirth());
+        spec = bindNullable(spec, "address", user.getAddress());
+        return bindNullable(spec, "phoneNumber", user.getPhoneNumber());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(
+            DatabaseClient.GenericExecuteSpec spec, String name, String value
+    ) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static User toUser(Readable row) {
+        return User.builder()
+                .id(row.get("id", Long.class))
+                .email(row.get("email", String.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .dateOfBirth(row.get("date_of_birth", LocalDate.class))
+                .address(row.get("address", String.class))
+                .phoneNumber(row.get("phone_number", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.kazmiruk.clearsolution.reactive;
+
+import com.kazmiruk.clearsolution.cache.UserDtoCache;
+import com.kazmiruk.clearsolution.cache.UserSecondLevelCacheInvalidator;
+import com.kazmiruk.clearsolution.mapper.UserMapper;
+import com.kazmiruk.clearsolution.model.dto.BirthDateCursor;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.service.UserChangeService;
+import com.kazmiruk.clearsolution.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of the single-user operations of {@link UserService}, over
+ * {@link ReactiveUserRepository}. Validation rules, the user cache and the change feed are shared with
+ * the servlet variant, so both behave the same against the same database: every write appends its
+ * change event in the same transaction, and cache evictions and change delivery follow the commit.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository reactiveUserRepository;
+
+    private final UserMapper userMapper;
+
+    private final UserService userService;
+
+    private final UserChangeService userChangeService;
+
+    private final UserDtoCache userDtoCache;
+
+    private final UserSecondLevelCacheInvalidator userSecondLevelCacheInvalidator;
+
+    private final TransactionalOperator reactiveTransactionalOperator;
+
+    public Mono<UserDto> createUser(UserDto userRequest) {
+        return Mono.fromCallable(() -> {
+                    userService.checkUserAge(userRequest.getDateOfBirth());
+                    return userMapper.toEntity(userRequest);
+                })
+                .flatMap(reactiveUserRepository::insert)
+                .flatMap(user -> appendChange(user, UserChangeEvent.Type.CREATED))
+                .as(reactiveTransactionalOperator::transactional)
+                .onErrorMap(DuplicateKeyException.class, e -> emailTaken(userRequest.getEmail()))
+                .doOnSuccess(user -> afterCommit(user.getId()));
+    }
+
+    public Mono<UserDto> getUserById(Long id) {
+        return Mono.fromFuture(() -> userDtoCache.getAsync(id, userId -> reactiveUserRepository.findById(userId)
+                .map(userMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> notFound(userId)))
+                .toFuture()));
+    }
+
+    /**
+     * Returns the current version of the user from the cache when possible, otherwise with a
+     * single-column query.
+     */
+    public Mono<Long> getUserVersion(Long id) {
+        UserDto cachedUser = userDtoCache.getIfPresent(id);
+        if (cachedUser != null) {
+            return Mono.just(cachedUser.getVersion());
+        }
+        return reactiveUserRepository.findVersionById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<CursorPageDto<Long>> getAllUsers(Long after, Integer limit) {
+        return Mono.fromCallable(() -> userService.resolvePageSize(limit))
+                // one extra row tells whether there is a next page without a count query
+                .flatMap(pageSize -> reactiveUserRepository.findAll(after, pageSize + 1)
+                        .map(userMapper::toDto)
+                        .collectList()
+                        .map(users -> page(users, pageSize, UserDto::getId)));
+    }
+
+    public Flux<UserDto> streamAllUsers() {
+        return reactiveUserRepository.streamAll()
+                .map(userMapper::toDto);
+    }
+
+    public Mono<CursorPageDto<String>> getUsersByBirthDateRange(
+            LocalDate from, LocalDate to, String after, Integer limit
+    ) {
+        return Mono.fromCallable(() -> {
+                    UserService.checkBirthDateRange(from, to);
+                    return userService.resolvePageSize(limit);
+                })
+                .flatMap(pageSize -> reactiveUserRepository.findByDateOfBirthBetween(
+                                from, to, after == null ? null : BirthDateCursor.parse(after), pageSize + 1
+                        )
+                        .map(userMapper::toDto)
+                        .collectList()
+                        .map(users -> page(users, pageSize, user -> BirthDateCursor.of(user).toString())));
+    }
+
+    /**
+     * Replaces the user. A non-null {@code expectedVersion} must match the current version; a writer
+     * that commits between that check and the update is caught by the version check of the update.
+     */
+    public Mono<UserDto> updateUser(Long id, UserDto userRequest, Long expectedVersion) {
+        return reactiveUserRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(user -> {
+                    UserService.checkUserVersion(user, expectedVersion);
+                    userService.checkUserAge(userRequest.getDateOfBirth());
+                    long version = user.getVersion();
+                    userMapper.updateEntity(user, userRequest);
+                    return reactiveUserRepository.update(user, version)
+                            .flatMap(updated -> updated == 0
+                                    ? Mono.error(new ObjectOptimisticLockingFailureException(User.class, id))
+                                    : appendChange(user, UserChangeEvent.Type.UPDATED));
+                })
+                .as(reactiveTransactionalOperator::transactional)
+                .onErrorMap(DuplicateKeyException.class, e -> emailTaken(userRequest.getEmail()))
+                .doOnSuccess(user -> afterCommit(id));
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return reactiveUserRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(user -> reactiveUserRepository.deleteById(id)
+                        .then(appendChange(user, UserChangeEvent.Type.DELETED)))
+                .as(reactiveTransactionalOperator::transactional)
+                .doOnSuccess(user -> afterCommit(id))
+                .then();
+    }
+
+    private Mono<UserDto> appendChange(User user, UserChangeEvent.Type type) {
+        UserDto userDto = userMapper.toDto(user);
+        return reactiveUserRepository.insertChangeEvent(userChangeService.newEvent(userDto, type, Instant.now()))
+                .thenReturn(userDto);
+    }
+
+    private void afterCommit(Long id) {
+        // R2DBC writes bypass Hibernate, which would otherwise keep its caches up to date
+        userSecondLevelCacheInvalidator.evict(List.of(id));
+        userDtoCache.evict(id);
+        userChangeService.requestDelivery();
+    }
+
+    private static <C> CursorPageDto<C> page(List<UserDto> users, int pageSize, Function<UserDto, C> cursor) {
+        if (users.size() <= pageSize) {
+            return new CursorPageDto<>(users, null);
+        }
+        List<UserDto> content = users.subList(0, pageSize);
+        return new CursorPageDto<>(content, cursor.apply(content.get(pageSize - 1)));
+    }
+
+    private static NotFoundException notFound(Long id) {
+        return new NotFoundException("User with id %d not found".formatted(id));
+    }
+
+    private static BadRequestException emailTaken(String email) {
+        return new BadRequestException("User with email '%s' already exists".formatted(email));
+    }
+
+}
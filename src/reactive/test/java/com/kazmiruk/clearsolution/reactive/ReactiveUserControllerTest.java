@@ -0,0 +1,139 @@
+package com.kazmiruk.clearsolution.reactive;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.service.UserChangeService;
+import com.kazmiruk.clearsolution.service.UserExportService;
+import com.kazmiruk.clearsolution.service.UserPatchCoalescer;
+import com.kazmiruk.clearsolution.service.UserService;
+import com.kazmiruk.clearsolution.validation.UserValidationConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+@Import({UserProperties.class, UserValidationConfig.class})
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService reactiveUserService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserPatchCoalescer userPatchCoalescer;
+
+    @MockBean
+    private UserChangeService userChangeService;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    private UserDto userResponse;
+
+    @BeforeEach
+    public void init() {
+        userResponse = UserDto.builder()
+                .id(1L)
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email("dima.kazmiruk.05@gmail.com")
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .version(3L)
+                .build();
+    }
+
+    @Test
+    public void ReactiveUserController_GetUserById_ReturnUserWithETag() {
+        when(reactiveUserService.getUserById(1L)).thenReturn(Mono.just(userResponse));
+
+        webTestClient.get().uri("/api/v1/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(userResponse.getEmail())
+                .jsonPath("$.dateOfBirth").isEqualTo("05-10-2004");
+    }
+
+    @Test
+    public void ReactiveUserController_GetUserByIdWithCurrentETag_ReturnNotModified() {
+        when(reactiveUserService.getUserVersion(1L)).thenReturn(Mono.just(3L));
+
+        webTestClient.get().uri("/api/v1/users/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+        verify(reactiveUserService, never()).getUserById(1L);
+    }
+
+    @Test
+    public void ReactiveUserController_GetMissingUser_ReturnNotFound() {
+        when(reactiveUserService.getUserById(2L))
+                .thenReturn(Mono.error(new NotFoundException("User with id 2 not found")));
+
+        webTestClient.get().uri("/api/v1/users/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("User with id 2 not found");
+    }
+
+    @Test
+    public void ReactiveUserController_CreateInvalidUser_ReturnFieldErrors() {
+        userResponse.setEmail("not-an-email");
+        userResponse.setFirstName("D");
+
+        webTestClient.post().uri("/api/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userResponse)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message.email").exists()
+                .jsonPath("$.message.firstName").exists();
+        verify(reactiveUserService, never()).createUser(Mockito.any());
+    }
+
+    @Test
+    public void ReactiveUserController_UpdateUserWithStaleETag_ReturnPreconditionFailed() {
+        when(reactiveUserService.updateUser(Mockito.eq(1L), Mockito.any(UserDto.class), Mockito.eq(2L)))
+                .thenReturn(Mono.error(new PreconditionFailedException(
+                        "User with id 1 has been modified, current version is 3"
+                )));
+
+        webTestClient.put().uri("/api/v1/users/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userResponse)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+}
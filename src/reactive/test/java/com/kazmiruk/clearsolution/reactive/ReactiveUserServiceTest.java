@@ -0,0 +1,171 @@
+package com.kazmiruk.clearsolution.reactive;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
+import com.kazmiruk.clearsolution.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.r2dbc.url=r2dbc:h2:mem:///clear-solution"
+                + "?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+)
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveUserServiceTest extends UserIntegrationTest {
+
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void ReactiveUserService_CreateUser_ReturnStoredUserAndAppendEvent() {
+        UserDto created = reactiveUserService.createUser(userRequest("dima.kazmiruk.05@gmail.com", 2004)).block();
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getVersion()).isZero();
+        assertThat(reactiveUserService.getUserById(created.getId()).block())
+                .usingRecursiveComparison()
+                .isEqualTo(created);
+        assertThat(userService.getUserById(created.getId()))
+                .usingRecursiveComparison()
+                .isEqualTo(created);
+        assertThat(userChangeEventRepository.findAll())
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getUserId()).isEqualTo(created.getId());
+                    assertThat(event.getType()).isEqualTo(UserChangeEvent.Type.CREATED);
+                });
+    }
+
+    @Test
+    public void ReactiveUserService_CreateUserWithTakenEmail_ThrowBadRequest() {
+        reactiveUserService.createUser(userRequest("taken@gmail.com", 2000)).block();
+
+        StepVerifier.create(reactiveUserService.createUser(userRequest("taken@gmail.com", 2001)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(BadRequestException.class)
+                        .hasMessage("User with email 'taken@gmail.com' already exists"))
+                .verify();
+        assertThat(userRepository.count()).isEqualTo(1);
+        assertThat(userChangeEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void ReactiveUserService_CreateUsersNextToJpa_AllocateDistinctIds() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(userService.createUser(userRequest("jpa%d@gmail.com".formatted(i), 2000)).getId());
+            ids.add(reactiveUserService.createUser(userRequest("r2dbc%d@gmail.com".formatted(i), 2000)).block().getId());
+        }
+
+        assertThat(ids).hasSize(10).allMatch(id -> id > 0);
+    }
+
+    @Test
+    public void ReactiveUserService_CreateUserAfterCachedJpaRangeQuery_EvictQueryCache() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2000, 12, 31);
+        userService.createUser(userRequest("jpa@gmail.com", 2000));
+        userService.getUsersByBirthDateRange(from, to, null, null);
+
+        reactiveUserService.createUser(userRequest("r2dbc@gmail.com", 2000)).block();
+
+        assertThat(userService.getUsersByBirthDateRange(from, to, null, null).content())
+                .extracting(UserDto::getEmail)
+                .containsExactlyInAnyOrder("jpa@gmail.com", "r2dbc@gmail.com");
+    }
+
+    @Test
+    public void ReactiveUserService_UpdateUser_BumpVersionAndEvictCache() {
+        UserDto created = reactiveUserService.createUser(userRequest("before@gmail.com", 2000)).block();
+        reactiveUserService.getUserById(created.getId()).block();
+
+        UserDto updated = reactiveUserService.updateUser(
+                created.getId(), userRequest("after@gmail.com", 2000), created.getVersion()
+        ).block();
+
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(reactiveUserService.getUserById(created.getId()).block().getEmail()).isEqualTo("after@gmail.com");
+        assertThat(reactiveUserService.getUserVersion(created.getId()).block()).isEqualTo(1);
+    }
+
+    @Test
+    public void ReactiveUserService_UpdateUserWithStaleVersion_ThrowPreconditionFailed() {
+        UserDto created = reactiveUserService.createUser(userRequest("stale@gmail.com", 2000)).block();
+        reactiveUserService.updateUser(created.getId(), userRequest("stale@gmail.com", 2001), null).block();
+
+        StepVerifier.create(reactiveUserService.updateUser(
+                        created.getId(), userRequest("stale@gmail.com", 2002), created.getVersion()
+                ))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        assertThat(userRepository.findById(created.getId()).orElseThrow().getDateOfBirth().getYear()).isEqualTo(2001);
+    }
+
+    @Test
+    public void ReactiveUserService_DeleteUser_RemoveUserAndAppendEvent() {
+        UserDto created = reactiveUserService.createUser(userRequest("deleted@gmail.com", 2000)).block();
+        reactiveUserService.getUserById(created.getId()).block();
+
+        reactiveUserService.deleteUser(created.getId()).block();
+
+        StepVerifier.create(reactiveUserService.getUserById(created.getId()))
+                .expectError(NotFoundException.class)
+                .verify();
+        assertThat(userChangeEventRepository.findAll())
+                .extracting(UserChangeEvent::getType)
+                .containsExactly(UserChangeEvent.Type.CREATED, UserChangeEvent.Type.DELETED);
+    }
+
+    @Test
+    public void ReactiveUserService_GetUsersByBirthDateRange_ReturnAllPagesInOrder() {
+        for (int i = 0; i < 5; i++) {
+            reactiveUserService.createUser(userRequest("user%d@gmail.com".formatted(i), 2000 - i % 3)).block();
+        }
+        reactiveUserService.createUser(userRequest("outside@gmail.com", 1990)).block();
+
+        List<UserDto> users = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPageDto<String> page = reactiveUserService.getUsersByBirthDateRange(
+                    LocalDate.of(1995, 1, 1), LocalDate.of(2000, 12, 31), after, 2
+            ).block();
+            users.addAll(page.content());
+            after = page.nextCursor();
+        } while (after != null);
+
+        assertThat(users).hasSize(5)
+                .isSortedAccordingTo((a, b) -> a.getDateOfBirth().equals(b.getDateOfBirth())
+                        ? a.getId().compareTo(b.getId())
+                        : a.getDateOfBirth().compareTo(b.getDateOfBirth()));
+    }
+
+    private static UserDto userRequest(String email, int yearOfBirth) {
+        return UserDto.builder()
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .email(email)
+                .dateOfBirth(LocalDate.of(yearOfBirth, 10, 5))
+                .build();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.kazmiruk.clearsolution;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+
+import java.time.LocalDate;
+
+/**
+ * Requests for valid users, for tests where only the email, and maybe the name, matter.
+ */
+public final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    public static UserDto userRequest(String email) {
+        return userRequest(email, "Dmytro");
+    }
+
+    public static UserDto userRequest(String email, String firstName) {
+        return UserDto.builder()
+                .firstName(firstName)
+                .lastName("Kazmiruk")
+                .email(email)
+                .dateOfBirth(LocalDate.of(2004, 10, 5))
+                .build();
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.kazmiruk.clearsolution;
+
+import com.kazmiruk.clearsolution.repository.UserChangeEventRepository;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Base of the tests running against the whole application on the H2 database of the {@code test}
+ * profile. The users and change events a test writes are deleted after it. Subclasses may redeclare
+ * {@link SpringBootTest} to set properties of their own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class UserIntegrationTest {
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected UserChangeEventRepository userChangeEventRepository;
+
+    @AfterEach
+    public void deleteUsers() {
+        userRepository.deleteAll();
+        userChangeEventRepository.deleteAll();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.kazmiruk.clearsolution.cache;
+
+import com.kazmiruk.clearsolution.ClearSolutionApplication;
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import com.kazmiruk.clearsolution.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs a second instance of the service in its own context, on the same database and loopback topic,
+ * and checks that what one instance changes is never served from the caches of the other.
+ */
+@SpringBootTest(properties = "user.cache.invalidation.channel=loopback")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserCacheClusterTest extends UserIntegrationTest {
+
+    private static final LocalDate FROM = LocalDate.of(2004, 1, 1);
+
+    private static final LocalDate TO = LocalDate.of(2004, 12, 31);
+
+    @Autowired
+    private UserService userService;
+
+    private ConfigurableApplicationContext otherNode;
+
+    private UserService otherUserService;
+
+    @BeforeAll
+    public void startOtherNode() {
+        otherNode = new SpringApplicationBuilder(ClearSolutionApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                // the schema belongs to this node's context
+                .run("--user.cache.invalidation.channel=loopback", "--spring.jpa.hibernate.ddl-auto=none");
+        otherUserService = otherNode.getBean(UserService.class);
+    }
+
+    @AfterAll
+    public void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @Test
+    public void UserService_UpdateUserOnOneNode_EvictOnOtherNode() {
+        Long id = userService.createUser(userRequest("cluster@gmail.com", "Dmytro")).getId();
+        otherUserService.getUserById(id);
+        otherNode.getBean(UserRepository.class).findById(id);
+        assertThat(otherNode.getBean(UserDtoCache.class).getIfPresent(id)).isNotNull();
+        assertThat(otherSecondLevelCache().contains(User.class, id)).isTrue();
+
+        userService.updateUser(id, userRequest("cluster@gmail.com", "Oleksii"), null);
+
+        assertThat(otherNode.getBean(UserDtoCache.class).getIfPresent(id)).isNull();
+        assertThat(otherSecondLevelCache().contains(User.class, id)).isFalse();
+        assertThat(otherUserService.getUserById(id).getFirstName()).isEqualTo("Oleksii");
+    }
+
+    @Test
+    public void UserService_DeleteUserOnOneNode_EvictOnOtherNode() {
+        Long id = userService.createUser(userRequest("cluster@gmail.com", "Dmytro")).getId();
+        otherUserService.getUserById(id);
+        otherNode.getBean(UserRepository.class).findById(id);
+
+        userService.deleteUser(id);
+
+        assertThat(otherSecondLevelCache().contains(User.class, id)).isFalse();
+        assertThatThrownBy(() -> otherUserService.getUserById(id)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void UserService_BirthDateRangeOnOtherNode_ServeFromQueryCacheUntilUpdated() {
+        Long id = userService.createUser(userRequest("cluster@gmail.com", "Dmytro")).getId();
+        MeterRegistry otherMeterRegistry = otherNode.getBean(MeterRegistry.class);
+        double hitRatio = otherMeterRegistry.get("user.cache.hit.ratio").tag("cache", "query").gauge().value();
+
+        otherUserService.getUsersByBirthDateRange(FROM, TO, null, null);
+        otherUserService.getUsersByBirthDateRange(FROM, TO, null, null);
+        assertThat(otherMeterRegistry.get("user.cache.hit.ratio").tag("cache", "query").gauge().value())
+                .isGreaterThan(Double.isNaN(hitRatio) ? 0 : hitRatio);
+
+        userService.updateUser(id, userRequest("cluster@gmail.com", "Oleksii"), null);
+
+        assertThat(otherUserService.getUsersByBirthDateRange(FROM, TO, null, null).content())
+                .extracting(UserDto::getFirstName)
+                .containsExactly("Oleksii");
+    }
+
+    @Test
+    public void UserService_CreateUserAfterCachedRangeQueryOnOtherNode_ServeNewUser() {
+        userService.createUser(userRequest("cluster@gmail.com", "Dmytro"));
+        otherUserService.getUsersByBirthDateRange(FROM, TO, null, null);
+
+        userService.createUser(userRequest("created@gmail.com", "Oleksii"));
+
+        assertThat(otherUserService.getUsersByBirthDateRange(FROM, TO, null, null).content())
+                .extracting(UserDto::getFirstName)
+                .containsExactlyInAnyOrder("Dmytro", "Oleksii");
+
+        userService.importUsers(List.of(userRequest("imported@gmail.com", "Andrii")).iterator());
+
+        assertThat(otherUserService.getUsersByBirthDateRange(FROM, TO, null, null).content())
+                .extracting(UserDto::getFirstName)
+                .containsExactlyInAnyOrder("Dmytro", "Oleksii", "Andrii");
+    }
+
+    @Test
+    public void UserService_ScanAllUsersOnOtherNode_KeepUsersOutOfSecondLevelCache() {
+        Long id = userService.createUser(userRequest("cluster@gmail.com", "Dmytro")).getId();
+        otherSecondLevelCache().evictEntityData(User.class);
+
+        otherUserService.getAllUsers(null, null);
+        otherUserService.getAllUsers(0L, null);
+        otherUserService.streamAllUsers(userResponse -> {
+        });
+        otherUserService.streamUsersByBirthDateRange(FROM, TO, userResponse -> {
+        });
+
+        assertThat(otherSecondLevelCache().contains(User.class, id)).isFalse();
+    }
+
+    private Cache otherSecondLevelCache() {
+        return otherNode.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache();
+    }
+
+}
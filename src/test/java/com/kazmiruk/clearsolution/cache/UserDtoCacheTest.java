@@ -0,0 +1,197 @@
+package com.kazmiruk.clearsolution.cache;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserDtoCacheTest {
+
+    private UserProperties userProperties;
+
+    private AtomicInteger loads;
+
+    private Function<Long, UserDto> loader;
+
+    @BeforeEach
+    public void init() {
+        userProperties = new UserProperties();
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return UserDto.builder().id(id).build();
+        };
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        List.copyOf(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResource);
+    }
+
+    @Test
+    public void UserDtoCache_Get_LoadOnceAndCountHits() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+
+        UserDto first = userDtoCache.get(1L, loader);
+        UserDto second = userDtoCache.get(1L, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(userDtoCache.stats().hitCount()).isEqualTo(1);
+        assertThat(userDtoCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void UserDtoCache_Evict_ReloadOnNextGet() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+        userDtoCache.get(1L, loader);
+
+        userDtoCache.evict(1L);
+        userDtoCache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void UserDtoCache_EvictInTransaction_DeferUntilCommit() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+        userDtoCache.get(1L, loader);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userDtoCache.evict(1L);
+        userDtoCache.get(1L, loader);
+        assertThat(loads).hasValue(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        userDtoCache.get(1L, loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void UserDtoCache_EvictInTransaction_PublishOneBatchAfterCommit() {
+        List<List<Long>> published = new ArrayList<>();
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, new UserCacheInvalidationChannel() {
+            @Override
+            public void publish(Collection<Long> userIds) {
+                published.add(List.copyOf(userIds));
+            }
+
+            @Override
+            public void subscribe(Consumer<Collection<Long>> listener) {
+            }
+        });
+        TransactionSynchronizationManager.initSynchronization();
+
+        userDtoCache.evict(1L);
+        userDtoCache.evict(2L);
+        userDtoCache.evict(1L);
+        assertThat(published).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(published).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    public void UserDtoCache_EvictOnLoopbackChannel_EvictOnOtherInstancesOfTopic() {
+        try (LoopbackUserCacheInvalidationChannel firstChannel = new LoopbackUserCacheInvalidationChannel("test");
+             LoopbackUserCacheInvalidationChannel secondChannel = new LoopbackUserCacheInvalidationChannel("test");
+             LoopbackUserCacheInvalidationChannel otherTopicChannel = new LoopbackUserCacheInvalidationChannel("other")) {
+            UserDtoCache first = new UserDtoCache(userProperties, firstChannel);
+            UserDtoCache second = new UserDtoCache(userProperties, secondChannel);
+            UserDtoCache otherTopic = new UserDtoCache(userProperties, otherTopicChannel);
+            List.of(first, second, otherTopic).forEach(cache -> cache.get(1L, loader));
+
+            first.evict(1L);
+
+            assertThat(first.getIfPresent(1L)).isNull();
+            assertThat(second.getIfPresent(1L)).isNull();
+            assertThat(otherTopic.getIfPresent(1L)).isNotNull();
+        }
+    }
+
+    @Test
+    public void UserDtoCache_EvictWithReplicas_EvictAgainAfterMaxLag() throws InterruptedException {
+        userProperties.getDatasource().getReplicas().add(new UserProperties.Datasource.Replica());
+        userProperties.getDatasource().setMaxLag(Duration.ofMillis(100));
+        userProperties.getDatasource().setLagCheckInterval(Duration.ofMillis(100));
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+        userDtoCache.get(1L, loader);
+
+        userDtoCache.evict(1L);
+        // a read from a lagging replica caches the row again
+        userDtoCache.get(1L, loader);
+        assertThat(userDtoCache.getIfPresent(1L)).isNotNull();
+
+        Thread.sleep(400);
+        assertThat(userDtoCache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void UserDtoCache_Disabled_AlwaysLoad() {
+        userProperties.getCache().setEnabled(false);
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+
+        userDtoCache.get(1L, loader);
+        userDtoCache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+        assertThat(userDtoCache.stats().requestCount()).isZero();
+    }
+
+    @Test
+    public void UserDtoCache_EvictDuringLoad_DropLoadedValue() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+
+        userDtoCache.get(1L, id -> {
+            userDtoCache.evict(id);
+            return loader.apply(id);
+        });
+        userDtoCache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void UserDtoCache_LoaderThrows_NotCacheFailure() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+
+        assertThatThrownBy(() -> userDtoCache.get(1L, id -> {
+            throw new NotFoundException("User with id 1 not found");
+        })).isInstanceOf(NotFoundException.class);
+        userDtoCache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void UserDtoCache_LoaderThrowsError_NotLeavePendingLoad() {
+        UserDtoCache userDtoCache = new UserDtoCache(userProperties, UserCacheInvalidationChannel.none());
+
+        assertThatThrownBy(() -> userDtoCache.get(1L, id -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        assertThat(userDtoCache.get(1L, loader).getId()).isEqualTo(1L);
+
+        assertThat(loads).hasValue(1);
+    }
+
+}
@@ -2,11 +2,34 @@ package com.kazmiruk.clearsolution.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.github.fge.jackson.jsonpointer.JsonPointer;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.ReplaceOperation;
+import com.kazmiruk.clearsolution.format.BinaryFormatConfig;
+import com.kazmiruk.clearsolution.idempotency.IdempotencyConfig;
+import com.kazmiruk.clearsolution.idempotency.IdempotencyService;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangeEventDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangePageDto;
 import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportRequestDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportReportDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserSelectionDto;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.exception.ConflictException;
+import com.kazmiruk.clearsolution.model.exception.TooManyRequestsException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.kazmiruk.clearsolution.service.UserChangeService;
+import com.kazmiruk.clearsolution.service.UserExportService;
+import com.kazmiruk.clearsolution.service.UserPatchCoalescer;
 import com.kazmiruk.clearsolution.service.UserService;
+import com.kazmiruk.clearsolution.validation.UserValidationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,19 +37,32 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -34,6 +70,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 
 @WebMvcTest(UserController.class)
+@Import({
+        SimpleMeterRegistry.class, UserProperties.class, BinaryFormatConfig.class, UserValidationConfig.class,
+        UserPatchCoalescer.class, IdempotencyConfig.class, IdempotencyService.class, UserStreamLimiter.class
+})
 public class UserControllerTest {
 
     @Autowired
@@ -42,9 +82,18 @@ public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserProperties userProperties;
+
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserChangeService userChangeService;
+
+    @MockBean
+    private UserExportService userExportService;
+
     private UserDto userRequest;
 
     @BeforeEach
@@ -79,10 +128,46 @@ public class UserControllerTest {
 
     }
 
+    @Test
+    public void UserController_CreateUserTwiceWithIdempotencyKey_CreateOnceAndReplay() throws Exception {
+        when(userService.createUser(Mockito.any(UserDto.class))).thenReturn(userRequest);
+
+        mockMvc.perform(createUserWithKey("create-dmytro", userRequest))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Idempotent-Replayed"));
+        mockMvc.perform(createUserWithKey("create-dmytro", userRequest))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(userRequest.getEmail())));
+        userRequest.setFirstName("Oleksii");
+        ResultActions response = mockMvc.perform(createUserWithKey("create-dmytro", userRequest));
+
+        response.andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        Mockito.verify(userService, Mockito.times(1)).createUser(Mockito.any(UserDto.class));
+    }
+
+    @Test
+    public void UserController_CreateInvalidUser_ReturnFieldErrors() throws Exception {
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"email": "not-an-email", "firstName": "D", "dateOfBirth": "05-10-2004", "phoneNumber": "123"}""")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpectAll(
+                        MockMvcResultMatchers.jsonPath("$.message.email", CoreMatchers.is("must be a well-formed email address")),
+                        MockMvcResultMatchers.jsonPath("$.message.firstName", CoreMatchers.is("size must be between 2 and 50")),
+                        MockMvcResultMatchers.jsonPath("$.message.phoneNumber", CoreMatchers.is("must match \"0\\d{9}\""))
+                );
+        Mockito.verifyNoInteractions(userService);
+    }
+
     @Test
     public void UserController_GetALlUsers_ReturnUserDtos() throws Exception {
 
-        Set<UserDto> userResponses = Set.of(
+        List<UserDto> userResponses = List.of(
                 UserDto.builder()
                         .id(1L)
                         .firstName("Dmytro")
@@ -99,13 +184,241 @@ public class UserControllerTest {
                         .build()
         );
 
-        Mockito.when(userService.getAllUsers()).thenReturn(userResponses);
+        Mockito.when(userService.getAllUsers(null, 2)).thenReturn(new CursorPageDto<>(userResponses, 2L));
 
         ResultActions response = mockMvc.perform(
                 get("/api/v1/users")
+                        .param("limit", "2")
         );
         response.andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(userResponses.size())));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()", CoreMatchers.is(userResponses.size())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is(2)));
+    }
+
+    @Test
+    public void UserController_GetAllUsersAcceptCbor_ReturnCborPage() throws Exception {
+        userRequest.setId(1L);
+        when(userService.getAllUsers(null, null)).thenReturn(new CursorPageDto<>(List.of(userRequest), 1L));
+
+        byte[] body = mockMvc.perform(
+                        get("/api/v1/users")
+                                .accept(MediaType.APPLICATION_CBOR)
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new CBORMapper().readTree(body);
+        assertThat(page.at("/content/0/email").asText()).isEqualTo(userRequest.getEmail());
+        assertThat(page.at("/content/0/dateOfBirth").asText()).isEqualTo("05-10-2004");
+        assertThat(page.at("/nextCursor").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    public void UserController_StreamAllUsers_ReturnNdjson() throws Exception {
+        UserDto userResponse = UserDto.builder()
+                .id(1L)
+                .firstName(userRequest.getFirstName())
+                .lastName(userRequest.getLastName())
+                .email(userRequest.getEmail())
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .build();
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).streamAllUsers(Mockito.any());
+
+        MvcResult asyncResult = mockMvc.perform(
+                get("/api/v1/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+        ).andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String line = objectMapper.writeValueAsString(userResponse);
+        assertThat(body).isEqualTo(line + "\n" + line + "\n");
+    }
+
+    @Test
+    public void UserController_StreamAllUsersBeyondMaxConcurrent_ReturnServiceUnavailable() throws Exception {
+        UserProperties.Streaming streaming = userProperties.getStreaming();
+        CountDownLatch finish = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            finish.await();
+            return null;
+        }).when(userService).streamAllUsers(Mockito.any());
+
+        List<MvcResult> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < streaming.getMaxConcurrent(); i++) {
+                streams.add(mockMvc.perform(get("/api/v1/users").accept(MediaType.APPLICATION_NDJSON)).andReturn());
+            }
+            mockMvc.perform(get("/api/v1/users").accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                    .andExpect(MockMvcResultMatchers.header().exists("Retry-After"));
+        } finally {
+            finish.countDown();
+        }
+        for (MvcResult stream : streams) {
+            assertThat(stream.getRequest().getAsyncContext().getTimeout()).isEqualTo(streaming.getTimeout().toMillis());
+            mockMvc.perform(asyncDispatch(stream))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        MvcResult next = mockMvc.perform(get("/api/v1/users").accept(MediaType.APPLICATION_NDJSON)).andReturn();
+        mockMvc.perform(asyncDispatch(next))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    public void UserController_UpdateUsersInvalidChanges_ReturnBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"users": {"ids": [1, 2]}, "changes": {"phoneNumber": "123"}}""")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message['changes.phoneNumber']").exists());
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void UserController_DeleteUsers_ReturnAffectedCount() throws Exception {
+        when(userService.deleteUsers(new UserSelectionDto(null, LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1))))
+                .thenReturn(new UserBulkResultDto(7));
+
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"from": "01-01-2000", "to": "01-01-2001"}""")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.affected", CoreMatchers.is(7)));
+    }
+
+    @Test
+    public void UserController_SearchUsers_ReturnPageWithNextPageNumber() throws Exception {
+        when(userService.searchUsers("smith", 0, 1)).thenReturn(new CursorPageDto<>(List.of(userRequest), 1));
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/users/search")
+                        .param("q", "smith")
+                        .param("page", "0")
+                        .param("limit", "1")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email", CoreMatchers.is(userRequest.getEmail())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is(1)));
+    }
+
+    @Test
+    public void UserController_GetChanges_ReturnEventsWithRawUserJson() throws Exception {
+        UserChangeEventDto event = new UserChangeEventDto(
+                7L, 1L, UserChangeEvent.Type.UPDATED, 2L, Instant.parse("2024-05-01T10:00:00Z"),
+                "{\"id\":1,\"firstName\":\"Oleh\"}"
+        );
+        when(userChangeService.awaitChanges(5L, null))
+                .thenReturn(CompletableFuture.completedFuture(new UserChangePageDto(List.of(event), 7L)));
+
+        MvcResult asyncResult = mockMvc.perform(
+                get("/api/v1/users/changes").param("since", "5")
+        ).andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next", CoreMatchers.is(7)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events[0].sequence", CoreMatchers.is(7)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events[0].type", CoreMatchers.is("UPDATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events[0].user.firstName", CoreMatchers.is("Oleh")));
+    }
+
+    @Test
+    public void UserController_SubmitExport_ReturnAcceptedWithLocation() throws Exception {
+        UUID id = UUID.fromString("6f1c2a3e-0d4b-4a7e-9d1f-2b3c4d5e6f70");
+        when(userExportService.submitExport(new UserExportRequestDto(UserExportDto.Format.CSV, null, null)))
+                .thenReturn(new UserExportDto(
+                        id, UserExportDto.Format.CSV, null, null, UserExportDto.Status.QUEUED, 0, null,
+                        Instant.parse("2024-05-01T10:00:00Z"), null, null
+                ));
+
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users/exports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"format": "CSV"}""")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/api/v1/users/exports/" + id))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is("QUEUED")));
+    }
+
+    @Test
+    public void UserController_GetExportFileNotReady_ReturnConflict() throws Exception {
+        UUID id = UUID.fromString("6f1c2a3e-0d4b-4a7e-9d1f-2b3c4d5e6f70");
+        when(userExportService.getExportFile(id)).thenThrow(new ConflictException("Export %s is running".formatted(id)));
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/users/exports/{id}/file", id)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    public void UserController_ImportUsersNdjson_ReportMalformedRowsAsNull() throws Exception {
+        List<UserDto> receivedRows = new ArrayList<>();
+        when(userService.importUsers(Mockito.any())).thenAnswer(invocation -> {
+            invocation.<Iterator<UserDto>>getArgument(0).forEachRemaining(receivedRows::add);
+            return new UserImportReportDto(1, 1, List.of(
+                    UserImportResultDto.created(0, 1L),
+                    UserImportResultDto.failed(1, Map.of("row", "Row is not a valid user JSON object"))
+            ));
+        });
+
+        String body = objectMapper.writeValueAsString(userRequest) + "\n"
+                + "{\"email\":\"oleh@gmail.com\",\"dateOfBirth\":\"not-a-date\"}\n";
+
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rows[1].status", CoreMatchers.is("FAILED")));
+        assertThat(receivedRows).hasSize(2);
+        assertThat(receivedRows.get(0).getEmail()).isEqualTo(userRequest.getEmail());
+        assertThat(receivedRows.get(1)).isNull();
+    }
+
+    @Test
+    public void UserController_ImportUsersJson_ReturnReport() throws Exception {
+        when(userService.importUsers(Mockito.any())).thenReturn(
+                new UserImportReportDto(2, 0, List.of(UserImportResultDto.created(0, 1L), UserImportResultDto.created(1, 2L)))
+        );
+
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(userRequest, userRequest)))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rows[1].id", CoreMatchers.is(2)));
     }
 
     @Test
@@ -116,6 +429,7 @@ public class UserControllerTest {
                 .lastName(userRequest.getLastName())
                 .email(userRequest.getEmail())
                 .dateOfBirth(userRequest.getDateOfBirth())
+                .version(3L)
                 .build();
 
         Mockito.when(userService.getUserById(1L)).thenReturn(userResponse);
@@ -125,6 +439,8 @@ public class UserControllerTest {
         );
 
         response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").doesNotExist())
                 .andExpectAll(
                         MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(userResponse.getFirstName())),
                         MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is(userResponse.getLastName())),
@@ -134,9 +450,81 @@ public class UserControllerTest {
                 .andDo(MockMvcResultHandlers.print());
     }
 
+    @Test
+    public void UserController_RateLimitExceeded_ReturnTooManyRequestsWithRetryAfter() throws Exception {
+        when(userService.getUserById(1L)).thenThrow(new TooManyRequestsException("Rate limit exceeded", Duration.ofMillis(1500)));
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/users/1")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"));
+    }
+
+    @Test
+    public void UserController_GetUserByIdIfNoneMatchCurrentVersion_ReturnNotModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/users/1")
+                        .header("If-None-Match", "\"3\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(userService, Mockito.never()).getUserById(Mockito.anyLong());
+    }
+
+    @Test
+    public void UserController_GetUserByIdIfNoneMatchStaleVersion_ReturnUserDto() throws Exception {
+        userRequest.setVersion(4L);
+        when(userService.getUserVersion(1L)).thenReturn(4L);
+        when(userService.getUserById(1L)).thenReturn(userRequest);
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/users/1")
+                        .header("If-None-Match", "\"3\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(userRequest.getEmail())));
+    }
+
+    @Test
+    public void UserController_UpdateUserIfMatch_PassExpectedVersion() throws Exception {
+        userRequest.setVersion(4L);
+        when(userService.updateUser(Mockito.eq(1L), Mockito.any(UserDto.class), Mockito.eq(3L))).thenReturn(userRequest);
+
+        ResultActions response = mockMvc.perform(
+                put("/api/v1/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void UserController_UpdateUserWeakIfMatch_ReturnPreconditionFailed() throws Exception {
+        ResultActions response = mockMvc.perform(
+                put("/api/v1/users/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        Mockito.verifyNoInteractions(userService);
+    }
+
     @Test
     public void UserController_UpdateUser_ReturnUserDto() throws Exception {
-        when(userService.updateUser(Mockito.anyLong(), Mockito.any(UserDto.class))).thenReturn(userRequest);
+        when(userService.updateUser(Mockito.anyLong(), Mockito.any(UserDto.class), Mockito.isNull())).thenReturn(userRequest);
 
         ResultActions response = mockMvc.perform(
                 put("/api/v1/users/1")
@@ -157,7 +545,7 @@ public class UserControllerTest {
     @Test
     public void UserController_UpdatePatchUser_ReturnUserDto() throws Exception {
         userRequest.setFirstName("Oleh");
-        when(userService.updateUser(Mockito.anyLong(), Mockito.any(JsonPatch.class))).thenReturn(userRequest);
+        when(userService.updateUser(Mockito.anyLong(), Mockito.any(JsonPatch.class), Mockito.isNull())).thenReturn(userRequest);
 
         JsonPatch patchRequest = new JsonPatch(
                 List.of(
@@ -203,7 +591,8 @@ public class UserControllerTest {
 
         LocalDate from = LocalDate.parse("2004-10-05");
         LocalDate to = LocalDate.parse("2006-06-28");
-        when(userService.getUsersByBirthDateRange(from, to)).thenReturn(expectedResponses);
+        when(userService.getUsersByBirthDateRange(from, to, null, null))
+                .thenReturn(new CursorPageDto<>(expectedResponses, null));
 
         ResultActions response = mockMvc.perform(
                 get("/api/v1/users/byBirthDateRange")
@@ -212,18 +601,23 @@ public class UserControllerTest {
         );
 
         response.andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
-                .andExpect(MockMvcResultMatchers.jsonPath("$").isNotEmpty())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(expectedResponses.size())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content").isNotEmpty())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()", CoreMatchers.is(expectedResponses.size())))
                 .andExpectAll(
-                        MockMvcResultMatchers.jsonPath("$[0].firstName", CoreMatchers.is(expectedResponses.get(0).getFirstName())),
-                        MockMvcResultMatchers.jsonPath("$[0].lastName", CoreMatchers.is(expectedResponses.get(0).getLastName())),
-                        MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(expectedResponses.get(0).getEmail())),
-                        MockMvcResultMatchers.jsonPath("$[0].dateOfBirth", CoreMatchers.is(expectedResponses.get(0).getDateOfBirth().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"))))
+                        MockMvcResultMatchers.jsonPath("$.content[0].firstName", CoreMatchers.is(expectedResponses.get(0).getFirstName())),
+                        MockMvcResultMatchers.jsonPath("$.content[0].lastName", CoreMatchers.is(expectedResponses.get(0).getLastName())),
+                        MockMvcResultMatchers.jsonPath("$.content[0].email", CoreMatchers.is(expectedResponses.get(0).getEmail())),
+                        MockMvcResultMatchers.jsonPath("$.content[0].dateOfBirth", CoreMatchers.is(expectedResponses.get(0).getDateOfBirth().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"))))
                 )
                 .andDo(MockMvcResultHandlers.print());
     }
 
-
+    private MockHttpServletRequestBuilder createUserWithKey(String idempotencyKey, UserDto userRequest) throws Exception {
+        return post("/api/v1/users")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userRequest));
+    }
 
 }
@@ -0,0 +1,115 @@
+package com.kazmiruk.clearsolution.datasource;
+
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private UserProperties.Datasource properties;
+
+    private HikariDataSource primary;
+
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    private LazyConnectionDataSourceProxy dataSource;
+
+    @BeforeEach
+    public void init() {
+        properties = new UserProperties.Datasource();
+        properties.setLagQuery("select 0");
+        primary = pool("primary", "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        replicaDataSource.close();
+        primary.close();
+    }
+
+    @Test
+    public void ReplicaRouting_ReadOnlyConnection_UseReplicasInTurn() throws SQLException {
+        start(List.of(
+                pool("replica-0", "jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1"),
+                pool("replica-1", "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1")
+        ));
+
+        assertThat(List.of(database(true), database(true), database(true)))
+                .containsExactly("routing-replica-0", "routing-replica-1", "routing-replica-0");
+        assertThat(database(false)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    public void ReplicaRouting_ReplicaBehindMaxLag_UsePrimary() throws SQLException {
+        properties.setLagQuery("select 10");
+        properties.setMaxLag(Duration.ofSeconds(5));
+        start(List.of(pool("replica-0", "jdbc:h2:mem:routing-lagging-replica;DB_CLOSE_DELAY=-1")));
+
+        assertThat(database(true)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    public void ReplicaRouting_ReplicaUnreachable_UsePrimary() throws SQLException {
+        start(List.of(pool("replica-0", "jdbc:h2:tcp://localhost:1/routing-replica")));
+
+        assertThat(database(true)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    public void ReplicaRouting_ConnectionWithCredentials_UsePrimary() throws SQLException {
+        DriverManagerDataSource credentialsPrimary = new DriverManagerDataSource("jdbc:h2:mem:routing-credentials-primary");
+        replicaDataSource = new ReplicaRoutingDataSource(
+                credentialsPrimary, List.of(pool("replica-0", "jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1")), properties
+        );
+        replicaDataSource.checkLag();
+
+        try (Connection connection = replicaDataSource.getConnection("sa", "");
+             ResultSet resultSet = connection.createStatement().executeQuery("select database()")) {
+            resultSet.next();
+            assertThat(resultSet.getString(1).toLowerCase()).isEqualTo("routing-credentials-primary");
+        }
+    }
+
+    private void start(List<HikariDataSource> replicas) {
+        replicaDataSource = new ReplicaRoutingDataSource(primary, replicas, properties);
+        replicaDataSource.checkLag();
+        dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+    }
+
+    /**
+     * Marks the connection like a transaction manager does and returns the database it talks to.
+     */
+    private String database(boolean readOnly) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(readOnly);
+            try (ResultSet resultSet = connection.createStatement().executeQuery("select database()")) {
+                resultSet.next();
+                return resultSet.getString(1).toLowerCase();
+            }
+        }
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setConnectionTimeout(2000);
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.ConflictException;
+import com.kazmiruk.clearsolution.model.exception.UnprocessableEntityException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyServiceTest {
+
+    private static final Duration LEASE = Duration.ofMillis(200);
+
+    private final MemoryIdempotencyStore idempotencyStore = new MemoryIdempotencyStore(idempotencyProperties());
+
+    private final IdempotencyService idempotencyService = new IdempotencyService(
+            idempotencyStore, JsonMapper.builder().findAndAddModules().build()
+    );
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void IdempotencyService_SameRequestTwice_RunOnceAndReplay() {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+
+        ResponseEntity<UserDto> first = createUser("key-1", userRequest);
+        ResponseEntity<UserDto> second = createUser("key-1", userRequest);
+
+        assertThat(created).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(second.getHeaders().getETag()).isEqualTo("\"1\"");
+        assertThat(second.getBody()).usingRecursiveComparison().ignoringFields("version").isEqualTo(first.getBody());
+    }
+
+    @Test
+    public void IdempotencyService_KeyReusedForOtherRequest_ThrowUnprocessableEntity() {
+        createUser("key-1", userRequest("idempotent@gmail.com"));
+
+        assertThatThrownBy(() -> createUser("key-1", userRequest("other@gmail.com")))
+                .isInstanceOf(UnprocessableEntityException.class)
+                .hasMessage("Idempotency-Key 'key-1' was already used for a different request");
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    public void IdempotencyService_SameKeyForOtherOperation_RunBoth() {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+
+        createUser("key-1", userRequest);
+        idempotencyService.execute("other", "key-1", userRequest, UserDto.class, () -> created(userRequest));
+
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    public void IdempotencyService_FailedRequest_ReleaseKey() {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+
+        assertThatThrownBy(() -> idempotencyService.execute("create-user", "key-1", userRequest, UserDto.class, () -> {
+            throw new BadRequestException("Failed");
+        })).isInstanceOf(BadRequestException.class);
+        ResponseEntity<UserDto> retry = createUser("key-1", userRequest);
+
+        assertThat(created).hasValue(1);
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    public void IdempotencyService_RequestFailingWithError_ReleaseKey() {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+
+        assertThatThrownBy(() -> idempotencyService.execute("create-user", "key-1", userRequest, UserDto.class, () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        createUser("key-1", userRequest);
+
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    public void IdempotencyService_ClaimNeverCompleted_RunAgainAfterLease() throws Exception {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+        createUser("key-1", userRequest);
+        // another instance sharing the store, which hangs, as if it had crashed, holding the claim
+        IdempotencyService otherInstance = new IdempotencyService(
+                idempotencyStore, JsonMapper.builder().findAndAddModules().build()
+        );
+        CountDownLatch hanging = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> otherInstance.execute("create-user", "key-2", userRequest, UserDto.class, () -> {
+            hanging.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return created(userRequest);
+        }));
+        hanging.await();
+
+        assertThatThrownBy(() -> createUser("key-2", userRequest)).isInstanceOf(ConflictException.class);
+        TimeUnit.MILLISECONDS.sleep(LEASE.toMillis() * 2);
+        ResponseEntity<UserDto> retry = createUser("key-2", userRequest);
+
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(createUser("key-1", userRequest).getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))
+                .isEqualTo("true");
+    }
+
+    @Test
+    public void IdempotencyService_ClaimCompletedAfterLease_KeepResponseOfRetry() throws Exception {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+        IdempotencyService otherInstance = new IdempotencyService(
+                idempotencyStore, JsonMapper.builder().findAndAddModules().build()
+        );
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<UserDto>> late = CompletableFuture.supplyAsync(() ->
+                otherInstance.execute("create-user", "key-1", userRequest, UserDto.class, () -> {
+                    running.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return created(userRequest);
+                })
+        );
+        running.await();
+        TimeUnit.MILLISECONDS.sleep(LEASE.toMillis() * 2);
+        Long retriedId = createUser("key-1", userRequest).getBody().getId();
+
+        resume.countDown();
+        late.get();
+
+        assertThat(createUser("key-1", userRequest).getBody().getId()).isEqualTo(retriedId);
+    }
+
+    @Test
+    public void IdempotencyService_InvalidKey_ThrowBadRequest() {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+
+        assertThatThrownBy(() -> createUser("", userRequest)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> createUser("k".repeat(256), userRequest)).isInstanceOf(BadRequestException.class);
+        assertThat(created).hasValue(0);
+    }
+
+    @Test
+    public void IdempotencyService_ConcurrentDuplicates_RunOnceAndReplayToOthers() throws Exception {
+        UserDto userRequest = userRequest("idempotent@gmail.com");
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<UserDto>> slowCreate = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return created(userRequest);
+        };
+
+        List<Future<ResponseEntity<UserDto>>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() ->
+                        idempotencyService.execute("create-user", "key-1", userRequest, UserDto.class, slowCreate)
+                ));
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+            release.countDown();
+        }
+
+        assertThat(created).hasValue(1);
+        int replayed = 0;
+        for (Future<ResponseEntity<UserDto>> response : responses) {
+            assertThat(response.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(response.get().getBody().getEmail()).isEqualTo("idempotent@gmail.com");
+            replayed += response.get().getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER) ? 1 : 0;
+        }
+        assertThat(replayed).isEqualTo(7);
+    }
+
+    private ResponseEntity<UserDto> createUser(String key, UserDto userRequest) {
+        return idempotencyService.execute("create-user", key, userRequest, UserDto.class, () -> created(userRequest));
+    }
+
+    private ResponseEntity<UserDto> created(UserDto userRequest) {
+        UserDto userResponse = UserDto.builder()
+                .id((long) created.incrementAndGet())
+                .firstName(userRequest.getFirstName())
+                .lastName(userRequest.getLastName())
+                .email(userRequest.getEmail())
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .version(1L)
+                .build();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag("\"1\"")
+                .body(userResponse);
+    }
+
+    private static UserProperties.Idempotency idempotencyProperties() {
+        UserProperties.Idempotency properties = new UserProperties.Idempotency();
+        properties.setLease(LEASE);
+        return properties;
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.kazmiruk.clearsolution.idempotency;
+
+import com.kazmiruk.clearsolution.model.entity.IdempotencyKey;
+import com.kazmiruk.clearsolution.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "user.idempotency.store=jdbc")
+@ActiveProfiles("test")
+public class JdbcIdempotencyStoreTest {
+
+    private static final String FINGERPRINT = "a".repeat(64);
+
+    private static final UUID TOKEN = UUID.randomUUID();
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    public void JdbcIdempotencyStore_ClaimCompletedKey_ReturnRecordedResponse() {
+        assertThat(idempotencyStore).isInstanceOf(JdbcIdempotencyStore.class);
+        assertThat(idempotencyStore.claim("create-user:key-1", TOKEN, FINGERPRINT)).isEmpty();
+        assertThat(idempotencyStore.claim("create-user:key-1", UUID.randomUUID(), FINGERPRINT))
+                .hasValueSatisfying(record -> assertThat(record.isInProgress()).isTrue());
+
+        idempotencyStore.complete("create-user:key-1", TOKEN, new IdempotencyRecord(FINGERPRINT, 201, "\"0\"", "{}"));
+
+        assertThat(idempotencyStore.claim("create-user:key-1", UUID.randomUUID(), "b".repeat(64)))
+                .contains(new IdempotencyRecord(FINGERPRINT, 201, "\"0\"", "{}"));
+    }
+
+    @Test
+    public void JdbcIdempotencyStore_CompleteClaim_KeepForRetentionInsteadOfLease() {
+        Instant claimed = Instant.now();
+        idempotencyStore.claim("create-user:key-1", TOKEN, FINGERPRINT);
+        assertThat(idempotencyKeyRepository.findById("create-user:key-1").orElseThrow().getExpiresAt())
+                .isBefore(claimed.plus(Duration.ofHours(1)));
+
+        idempotencyStore.complete("create-user:key-1", TOKEN, new IdempotencyRecord(FINGERPRINT, 201, "\"0\"", "{}"));
+
+        assertThat(idempotencyKeyRepository.findById("create-user:key-1").orElseThrow().getExpiresAt())
+                .isAfter(claimed.plus(Duration.ofHours(23)));
+    }
+
+    @Test
+    public void JdbcIdempotencyStore_ReleasedOrLapsedClaim_ClaimAgain() {
+        idempotencyStore.claim("create-user:key-1", TOKEN, FINGERPRINT);
+        idempotencyStore.release("create-user:key-1", TOKEN);
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .idempotencyKey("create-user:key-2")
+                .fingerprint(FINGERPRINT)
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+
+        assertThat(idempotencyStore.claim("create-user:key-1", TOKEN, FINGERPRINT)).isEmpty();
+        assertThat(idempotencyStore.claim("create-user:key-2", TOKEN, FINGERPRINT)).isEmpty();
+        assertThat(idempotencyKeyRepository.findById("create-user:key-2").orElseThrow().getExpiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    public void JdbcIdempotencyStore_CompleteOrReleaseLapsedClaim_KeepClaimOfRetry() {
+        idempotencyStore.claim("create-user:key-1", TOKEN, FINGERPRINT);
+        IdempotencyKey lapsed = idempotencyKeyRepository.findById("create-user:key-1").orElseThrow();
+        lapsed.setExpiresAt(Instant.now().minusSeconds(1));
+        idempotencyKeyRepository.save(lapsed);
+        UUID retryToken = UUID.randomUUID();
+        assertThat(idempotencyStore.claim("create-user:key-1", retryToken, FINGERPRINT)).isEmpty();
+
+        boolean completed = idempotencyStore.complete(
+                "create-user:key-1", TOKEN, new IdempotencyRecord(FINGERPRINT, 201, "\"0\"", "{}")
+        );
+        idempotencyStore.release("create-user:key-1", TOKEN);
+
+        assertThat(completed).isFalse();
+        assertThat(idempotencyStore.claim("create-user:key-1", UUID.randomUUID(), FINGERPRINT))
+                .hasValueSatisfying(record -> assertThat(record.isInProgress()).isTrue());
+        assertThat(idempotencyStore.complete(
+                "create-user:key-1", retryToken, new IdempotencyRecord(FINGERPRINT, 201, "\"1\"", "{}")
+        )).isTrue();
+    }
+
+    @Test
+    public void JdbcIdempotencyStore_ConcurrentClaims_GrantKeyOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<IdempotencyRecord>>> claims = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyStore.claim("create-user:key-1", UUID.randomUUID(), FINGERPRINT);
+                }));
+            }
+            start.countDown();
+        }
+
+        int granted = 0;
+        for (Future<Optional<IdempotencyRecord>> claim : claims) {
+            granted += claim.get().isEmpty() ? 1 : 0;
+        }
+        assertThat(granted).isEqualTo(1);
+    }
+
+}
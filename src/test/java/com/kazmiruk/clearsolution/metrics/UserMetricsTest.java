@@ -0,0 +1,65 @@
+package com.kazmiruk.clearsolution.metrics;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+public class UserMetricsTest extends UserIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    public void clearMeters() {
+        meterRegistry.clear();
+    }
+
+    @Test
+    public void UserService_OperationOutcome_RecordTimerTaggedWithException() throws Exception {
+        Long id = userService.createUser(userRequest("metrics@gmail.com")).getId();
+
+        mockMvc.perform(get("/api/v1/users/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/users/{id}", id + 1000)).andExpect(status().isNotFound());
+
+        assertThat(meterRegistry.get("user.service")
+                .tags("method", "getUserById", "exception", "none").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("user.service")
+                .tags("method", "getUserById", "exception", "NotFoundException").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void RequestStatistics_GetAllUsers_RecordStatementsAndEntityLoadsPerRequest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            userService.createUser(userRequest("user%d@gmail.com".formatted(i)));
+        }
+
+        mockMvc.perform(get("/api/v1/users")).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.jdbc.statements")
+                .tags("method", "GET", "uri", "/api/v1/users").summary();
+        DistributionSummary entityLoads = meterRegistry.get("http.server.requests.entity.loads")
+                .tags("method", "GET", "uri", "/api/v1/users").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+        assertThat(entityLoads.totalAmount()).isEqualTo(3);
+    }
+
+}
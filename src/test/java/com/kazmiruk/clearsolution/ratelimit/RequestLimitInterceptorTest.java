@@ -0,0 +1,89 @@
+package com.kazmiruk.clearsolution.ratelimit;
+
+import com.kazmiruk.clearsolution.model.exception.ServiceUnavailableException;
+import com.kazmiruk.clearsolution.model.exception.TooManyRequestsException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestLimitInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private UserProperties userProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void init() {
+        userProperties = new UserProperties();
+        userProperties.getRateLimit().setEnabled(true);
+        userProperties.getRateLimit().setClientHeader("X-Client-Id");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void RequestLimit_EndpointBudgetUsedUp_RejectOnlyThatClientAndEndpoint() throws Exception {
+        UserProperties.RateLimit.Budget budget = new UserProperties.RateLimit.Budget();
+        budget.setLimit(2);
+        budget.setPeriod(Duration.ofMinutes(1));
+        userProperties.getRateLimit().getEndpoints().put("GET /api/v1/users", budget);
+        RequestLimitInterceptor interceptor = new RequestLimitInterceptor(userProperties, meterRegistry);
+
+        handle(interceptor, request("GET", "/api/v1/users", "a"));
+        handle(interceptor, request("GET", "/api/v1/users", "a"));
+
+        assertThatThrownBy(() -> handle(interceptor, request("GET", "/api/v1/users", "a")))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter())
+                        .isPositive()
+                        .isLessThanOrEqualTo(Duration.ofSeconds(30)));
+        handle(interceptor, request("GET", "/api/v1/users", "b"));
+        handle(interceptor, request("GET", "/api/v1/users/{id}", "a"));
+        assertThat(meterRegistry.get("http.server.requests.rejected")
+                .tags("uri", "/api/v1/users", "reason", "rate-limit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void RequestLimit_MaxConcurrentRequestsInProgress_RejectUntilOneCompletes() throws Exception {
+        userProperties.getRateLimit().setMaxConcurrentRequests(1);
+        userProperties.getRateLimit().setConcurrencyExcludedEndpoints(Set.of("GET /api/v1/users/changes"));
+        RequestLimitInterceptor interceptor = new RequestLimitInterceptor(userProperties, meterRegistry);
+        MockHttpServletRequest inProgress = request("GET", "/api/v1/users", "a");
+        interceptor.preHandle(inProgress, response, null);
+
+        assertThatThrownBy(() -> handle(interceptor, request("GET", "/api/v1/users", "b")))
+                .isInstanceOf(ServiceUnavailableException.class);
+        handle(interceptor, request("GET", "/api/v1/users/changes", "b"));
+
+        interceptor.afterCompletion(inProgress, response, null, null);
+        interceptor.afterCompletion(inProgress, response, null, null);
+        handle(interceptor, request("GET", "/api/v1/users", "b"));
+        assertThat(meterRegistry.get("http.server.requests.limited.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("http.server.requests.rejected")
+                .tags("reason", "concurrency").counter().count()).isEqualTo(1);
+    }
+
+    private void handle(RequestLimitInterceptor interceptor, MockHttpServletRequest request) throws Exception {
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+
+}
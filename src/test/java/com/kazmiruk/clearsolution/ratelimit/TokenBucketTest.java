@@ -0,0 +1,74 @@
+package com.kazmiruk.clearsolution.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    public void TokenBucket_BurstAboveLimit_ReturnWaitUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(4, Duration.ofSeconds(1), 0);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 4);
+        assertThat(bucket.tryAcquire(SECOND / 8)).isEqualTo(SECOND / 8);
+        assertThat(bucket.tryAcquire(SECOND / 4)).isZero();
+    }
+
+    @Test
+    public void TokenBucket_IdleLongerThanPeriod_RefillOnlyUpToLimit() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        long later = 10 * SECOND;
+
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    public void TokenBucket_ConcurrentAcquire_HandOutExactlyLimit() throws Exception {
+        TokenBucket bucket = new TokenBucket(1000, Duration.ofDays(1), 0);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> threads = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                threads.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    for (int j = 0; j < 500; j++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(threads.toArray(CompletableFuture[]::new)).get();
+        }
+
+        assertThat(acquired).hasValue(1000);
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.properties.UserProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserAgePolicyTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(2);
+
+    @Test
+    public void UserAgePolicy_CheckUserAge_AgreeWithPeriodBetween() {
+        List<String> mismatches = new ArrayList<>();
+        for (LocalDate today = LocalDate.of(2026, 1, 1); today.getYear() < 2029; today = today.plusDays(1)) {
+            UserAgePolicy policy = new UserAgePolicy(properties(18), Clock.fixed(startOf(today), ZONE));
+            for (LocalDate dateOfBirth = today.minusYears(18).minusDays(3);
+                 !dateOfBirth.isAfter(today.minusYears(18).plusDays(3));
+                 dateOfBirth = dateOfBirth.plusDays(1)) {
+                boolean adult = Period.between(dateOfBirth, today).getYears() >= 18;
+                if (adult != !dateOfBirth.isAfter(policy.latestDateOfBirth())) {
+                    mismatches.add(dateOfBirth + " on " + today);
+                }
+            }
+        }
+
+        assertThat(mismatches).isEmpty();
+    }
+
+    @Test
+    public void UserAgePolicy_CheckLeapDayBirthday_AdultOnMarchFirstOfCommonYear() {
+        MutableClock clock = new MutableClock(startOf(LocalDate.of(2026, 2, 28)));
+        UserAgePolicy policy = new UserAgePolicy(properties(18), clock);
+        LocalDate dateOfBirth = LocalDate.of(2008, 2, 29);
+
+        assertThatThrownBy(() -> policy.checkUserAge(dateOfBirth))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("User must be 18 years old or older");
+
+        clock.instant = startOf(LocalDate.of(2026, 3, 1)).minusMillis(1);
+        assertThatThrownBy(() -> policy.checkUserAge(dateOfBirth)).isInstanceOf(BadRequestException.class);
+
+        clock.instant = startOf(LocalDate.of(2026, 3, 1));
+        policy.checkUserAge(dateOfBirth);
+        assertThat(policy.today()).isEqualTo(LocalDate.of(2026, 3, 1));
+
+        clock.instant = startOf(LocalDate.of(2026, 2, 27));
+        assertThat(policy.latestDateOfBirth()).isEqualTo(LocalDate.of(2008, 2, 27));
+    }
+
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZONE).toInstant();
+    }
+
+    private static UserProperties properties(int age) {
+        UserProperties properties = new UserProperties();
+        properties.setAge(age);
+        return properties;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks birthday windows against a brute-force answer over 20k users born on every day of 1996 to
+ * 2004, so each birthday, Feb 29 included, is shared by dozens of users and listings take many pages.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserBirthdayWindowTest {
+
+    private static final int USERS = 20_000;
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> users;
+
+    @BeforeAll
+    public void seed() {
+        List<User> seeded = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            seeded.add(User.builder()
+                    .firstName("User" + i)
+                    .lastName("Kazmiruk")
+                    .email("birthday%d@gmail.com".formatted(i))
+                    .dateOfBirth(LocalDate.of(1996, 1, 1).plusDays(i * 7L % 3288))
+                    .build());
+        }
+        userRepository.saveAll(seeded);
+        users = userRepository.findAll();
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthdayWindow_MatchBruteForce() {
+        List<Window> windows = List.of(
+                new Window(LocalDate.of(2026, 12, 28), 7), new Window(LocalDate.of(2026, 12, 31), 2),
+                new Window(LocalDate.of(2027, 2, 28), 1), new Window(LocalDate.of(2027, 2, 28), 2),
+                new Window(LocalDate.of(2027, 3, 1), 1), new Window(LocalDate.of(2028, 2, 28), 3),
+                new Window(LocalDate.of(2028, 3, 1), 30), new Window(LocalDate.of(2027, 3, 1), 365),
+                new Window(LocalDate.of(2026, 6, 5), 365)
+        );
+
+        for (Window window : windows) {
+            assertThat(birthdayWindow(window, null))
+                    .as(window.toString())
+                    .containsExactlyElementsOf(expectedBirthdays(window));
+        }
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthdayWindowWithAge_ReturnUsersTurningThatAge() {
+        List<Window> windows = List.of(
+                new Window(LocalDate.of(2026, 12, 28), 7), new Window(LocalDate.of(2027, 2, 26), 3),
+                new Window(LocalDate.of(2027, 3, 1), 1), new Window(LocalDate.of(2028, 2, 29), 1),
+                new Window(LocalDate.of(2027, 2, 28), 1), new Window(LocalDate.of(2026, 6, 5), 365)
+        );
+
+        for (Window window : windows) {
+            assertThat(birthdayWindow(window, 23))
+                    .as(window.toString())
+                    .containsExactlyElementsOf(expectedTurning(window, 23));
+        }
+    }
+
+    private List<Long> birthdayWindow(Window window, Integer age) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPageDto<String> page = userService.getUsersByBirthdayWindow(
+                    window.from(), window.days(), age, after, PAGE_SIZE
+            );
+            page.content().stream().map(UserDto::getId).forEach(ids::add);
+            after = page.nextCursor();
+        } while (after != null);
+        return ids;
+    }
+
+    private List<Long> expectedBirthdays(Window window) {
+        LocalDate from = window.from();
+        LocalDate to = window.to();
+        return users.stream()
+                .filter(user -> celebration(user.getDateOfBirth(), from, to).isPresent())
+                .sorted(Comparator.<User, LocalDate>comparing(user -> celebration(user.getDateOfBirth(), from, to).orElseThrow())
+                        .thenComparing(user -> MonthDay.from(user.getDateOfBirth()))
+                        .thenComparing(User::getId))
+                .map(User::getId)
+                .toList();
+    }
+
+    private List<Long> expectedTurning(Window window, int age) {
+        LocalDate from = window.from();
+        LocalDate to = window.to();
+        return users.stream()
+                .filter(user -> Period.between(user.getDateOfBirth(), from.minusDays(1)).getYears() < age
+                        && Period.between(user.getDateOfBirth(), to).getYears() >= age)
+                .sorted(Comparator.comparing(User::getDateOfBirth).thenComparing(User::getId))
+                .map(User::getId)
+                .toList();
+    }
+
+    /**
+     * The day within {@code [from, to]} the birthday is celebrated on, Mar 1 for Feb 29 in common years.
+     */
+    private static Optional<LocalDate> celebration(LocalDate dateOfBirth, LocalDate from, LocalDate to) {
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            LocalDate birthday = dateOfBirth.withYear(year);
+            if (birthday.getDayOfMonth() < dateOfBirth.getDayOfMonth()) {
+                birthday = birthday.plusDays(1);
+            }
+            if (!birthday.isBefore(from) && !birthday.isAfter(to)) {
+                return Optional.of(birthday);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private record Window(LocalDate from, int days) {
+
+        private LocalDate to() {
+            return from.plusDays(days - 1);
+        }
+
+    }
+
+}
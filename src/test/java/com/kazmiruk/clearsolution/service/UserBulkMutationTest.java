@@ -0,0 +1,107 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.model.dto.UserBulkResultDto;
+import com.kazmiruk.clearsolution.model.dto.UserBulkUpdateDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangeEventDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserSelectionDto;
+import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "user.bulk-mutation.chunk-size=2")
+public class UserBulkMutationTest extends UserIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    private long since;
+
+    @BeforeEach
+    public void init() {
+        for (int i = 0; i < 5; i++) {
+            ids.add(userService.createUser(userRequest(i, LocalDate.of(2000 + i, 1, 1))).getId());
+        }
+        since = userChangeService.getChanges(0, null).next();
+    }
+
+    @Test
+    public void UserService_UpdateUsersByBirthDateRange_UpdateMatchingUsersInChunks() {
+        UserBulkUpdateDto request = new UserBulkUpdateDto(
+                new UserSelectionDto(null, LocalDate.of(2001, 1, 1), LocalDate.of(2004, 1, 1)),
+                new UserBulkUpdateDto.Changes(null, null, "Ukraine, Lviv", null)
+        );
+
+        UserBulkResultDto result = userService.updateUsers(request);
+
+        assertThat(result.affected()).isEqualTo(4);
+        List<User> users = userRepository.findAllById(ids);
+        assertThat(users).filteredOn(user -> "Ukraine, Lviv".equals(user.getAddress()))
+                .extracting(User::getId)
+                .containsExactlyInAnyOrderElementsOf(ids.subList(1, 5))
+                .allSatisfy(id -> assertThat(userRepository.findById(id).orElseThrow().getVersion()).isEqualTo(1L));
+        assertThat(users).filteredOn(user -> user.getId().equals(ids.get(0)))
+                .singleElement()
+                .satisfies(user -> assertThat(user.getFirstName()).isEqualTo("User0"));
+        assertThat(userChangeService.getChanges(since, null).events())
+                .hasSize(4)
+                .allSatisfy(event -> {
+                    assertThat(event.type()).isEqualTo(UserChangeEvent.Type.UPDATED);
+                    assertThat(event.user()).contains("Ukraine, Lviv");
+                });
+    }
+
+    @Test
+    public void UserService_DeleteUsersByIds_DeleteExistingUsersOnly() {
+        UserSelectionDto selection = new UserSelectionDto(
+                List.of(ids.get(0), ids.get(2), ids.get(2), ids.get(4), -1L), null, null
+        );
+
+        UserBulkResultDto result = userService.deleteUsers(selection);
+
+        assertThat(result.affected()).isEqualTo(3);
+        assertThat(userRepository.findAll()).extracting(User::getId).containsExactlyInAnyOrder(ids.get(1), ids.get(3));
+        assertThat(userChangeService.getChanges(since, null).events())
+                .extracting(UserChangeEventDto::userId)
+                .containsExactlyInAnyOrder(ids.get(0), ids.get(2), ids.get(4));
+    }
+
+    @Test
+    public void UserService_DeleteUsersWithIdsAndRange_ThrowBadRequest() {
+        UserSelectionDto selection = new UserSelectionDto(
+                List.of(ids.get(0)), LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1)
+        );
+
+        assertThatThrownBy(() -> userService.deleteUsers(selection))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Either ids or a birth date range (from, to) should be given");
+        assertThat(userRepository.count()).isEqualTo(5);
+    }
+
+    private static UserDto userRequest(int i, LocalDate dateOfBirth) {
+        return UserDto.builder()
+                .firstName("User" + i)
+                .lastName("Kazmiruk")
+                .email("user%d@gmail.com".formatted(i))
+                .dateOfBirth(dateOfBirth)
+                .build();
+    }
+
+}
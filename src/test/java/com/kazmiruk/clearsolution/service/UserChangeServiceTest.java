@@ -0,0 +1,128 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.metrics.HibernateRequestStatistics;
+import com.kazmiruk.clearsolution.model.dto.UserChangeEventDto;
+import com.kazmiruk.clearsolution.model.dto.UserChangePageDto;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "user.changes.poll-interval=50ms")
+public class UserChangeServiceTest extends UserIntegrationTest {
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void UserChangeService_UserWrites_AppendEventsInOrder() {
+        UserDto user = userService.createUser(userRequest("changes@gmail.com"));
+        UserDto updateRequest = userRequest("changes@gmail.com");
+        updateRequest.setFirstName("Oleh");
+        userService.updateUser(user.getId(), updateRequest, null);
+        userService.deleteUser(user.getId());
+
+        UserChangePageDto page = userChangeService.getChanges(0, null);
+
+        assertThat(page.events()).extracting(UserChangeEventDto::type).containsExactly(
+                UserChangeEvent.Type.CREATED, UserChangeEvent.Type.UPDATED, UserChangeEvent.Type.DELETED
+        );
+        assertThat(page.events()).extracting(UserChangeEventDto::version).containsExactly(0L, 1L, 1L);
+        assertThat(page.events()).allSatisfy(event -> assertThat(event.userId()).isEqualTo(user.getId()));
+        assertThat(page.events().get(1).user()).contains("\"firstName\":\"Oleh\"");
+        assertThat(page.events().get(2).user()).isNull();
+        assertThat(page.next()).isEqualTo(page.events().get(2).sequence());
+        assertThat(userChangeService.getChanges(page.next(), null).events()).isEmpty();
+    }
+
+    @Test
+    public void UserChangeService_AwaitChanges_CompleteOnceUserIsCreated() throws Exception {
+        long since = userChangeService.getChanges(0, null).next();
+
+        CompletableFuture<UserChangePageDto> changes = userChangeService.awaitChanges(since, null);
+        assertThat(changes).isNotDone();
+        userService.createUser(userRequest("waiter@gmail.com"));
+
+        UserChangePageDto page = changes.get(5, TimeUnit.SECONDS);
+        assertThat(page.events()).singleElement().satisfies(event -> {
+            assertThat(event.type()).isEqualTo(UserChangeEvent.Type.CREATED);
+            assertThat(event.user()).contains("waiter@gmail.com");
+        });
+    }
+
+    @Test
+    public void UserChangeService_TransactionCommittingLast_DeliverAfterEarlierCommits() throws Exception {
+        long since = userChangeService.getChanges(0, null).next();
+        CountDownLatch created = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowWriter = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            userService.createUser(userRequest("slow@gmail.com"));
+            created.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        created.await();
+        userService.createUser(userRequest("fast@gmail.com"));
+
+        UserChangePageDto first = userChangeService.getChanges(since, null);
+        commit.countDown();
+        slowWriter.get(5, TimeUnit.SECONDS);
+        UserChangePageDto second = userChangeService.getChanges(first.next(), null);
+
+        assertThat(first.events()).singleElement().satisfies(event -> assertThat(event.user()).contains("fast@gmail.com"));
+        assertThat(second.events()).singleElement().satisfies(event -> assertThat(event.user()).contains("slow@gmail.com"));
+    }
+
+    @Test
+    public void UserChangeService_AppendManyEvents_TakePositionsInOneStatement() {
+        long since = userChangeService.getChanges(0, null).next();
+
+        long oneEvent = statementsToAppend(1);
+        long manyEvents = statementsToAppend(50);
+
+        assertThat(manyEvents).isEqualTo(oneEvent);
+        List<UserChangeEventDto> events = userChangeService.getChanges(since, null).events();
+        assertThat(events).hasSize(51);
+        assertThat(events.subList(1, 51)).extracting(UserChangeEventDto::userId)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 50).boxed().toList());
+        assertThat(events.get(50).sequence() - events.get(1).sequence()).isEqualTo(49);
+    }
+
+    private long statementsToAppend(int count) {
+        List<UserDto> users = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    UserDto user = userRequest("user%d@gmail.com".formatted(id));
+                    user.setId(id);
+                    user.setVersion(1L);
+                    return user;
+                })
+                .toList();
+        HibernateRequestStatistics.reset();
+        transactionTemplate.executeWithoutResult(status ->
+                userChangeService.appendDtos(users, UserChangeEvent.Type.UPDATED)
+        );
+        return HibernateRequestStatistics.statements();
+    }
+
+}
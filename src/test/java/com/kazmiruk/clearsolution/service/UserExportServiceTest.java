@@ -0,0 +1,137 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportDto;
+import com.kazmiruk.clearsolution.model.dto.UserExportRequestDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserExportServiceTest extends UserIntegrationTest {
+
+    @TempDir
+    private static Path exportDirectory;
+
+    @DynamicPropertySource
+    static void exportProperties(DynamicPropertyRegistry registry) {
+        registry.add("user.export.directory", exportDirectory::toString);
+    }
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserService userService;
+
+    private UserDto first;
+
+    private UserDto second;
+
+    @BeforeEach
+    public void init() {
+        first = userService.createUser(UserDto.builder()
+                .email("first@gmail.com")
+                .firstName("Dmytro")
+                .lastName("Kazmiruk")
+                .dateOfBirth(LocalDate.of(2000, 1, 1))
+                .address("Ukraine, \"Kyiv\"")
+                .build());
+        second = userService.createUser(UserDto.builder()
+                .email("second@gmail.com")
+                .firstName("Olena")
+                .lastName("Shevchenko")
+                .dateOfBirth(LocalDate.of(2004, 1, 1))
+                .phoneNumber("0931234567")
+                .build());
+    }
+
+    @Test
+    public void UserExportService_ExportCsv_WriteGzipWithHeaderAndQuotedValues() throws Exception {
+        UserExportDto export = userExportService.submitExport(new UserExportRequestDto(UserExportDto.Format.CSV, null, null));
+
+        UserExportDto completed = awaitCompletion(export.id());
+
+        assertThat(completed.status()).isEqualTo(UserExportDto.Status.COMPLETED);
+        assertThat(completed.exportedUsers()).isEqualTo(2);
+        assertThat(completed.totalUsers()).isEqualTo(2);
+        assertThat(readLines(userExportService.getExportFile(export.id()))).containsExactly(
+                "id,email,firstName,lastName,dateOfBirth,address,phoneNumber",
+                first.getId() + ",first@gmail.com,Dmytro,Kazmiruk,01-01-2000,\"Ukraine, \"\"Kyiv\"\"\",",
+                second.getId() + ",second@gmail.com,Olena,Shevchenko,01-01-2004,,0931234567"
+        );
+    }
+
+    @Test
+    public void UserExportService_ExportNdjsonByBirthDateRange_WriteMatchingUsersOnly() throws Exception {
+        UserExportDto export = userExportService.submitExport(new UserExportRequestDto(
+                UserExportDto.Format.NDJSON, LocalDate.of(2003, 1, 1), LocalDate.of(2005, 1, 1)
+        ));
+
+        UserExportDto completed = awaitCompletion(export.id());
+
+        assertThat(completed.exportedUsers()).isEqualTo(1);
+        Path file = userExportService.getExportFile(export.id());
+        assertThat(file.getFileName().toString()).endsWith(".ndjson.gz");
+        assertThat(readLines(file)).singleElement().asString()
+                .contains("\"email\":\"second@gmail.com\"", "\"dateOfBirth\":\"01-01-2004\"");
+    }
+
+    @Test
+    public void UserExportService_DeleteExport_RemoveJobAndFile() throws Exception {
+        UserExportDto export = userExportService.submitExport(new UserExportRequestDto(UserExportDto.Format.CSV, null, null));
+        awaitCompletion(export.id());
+        Path file = userExportService.getExportFile(export.id());
+
+        userExportService.deleteExport(export.id());
+
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> userExportService.getExport(export.id()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void UserExportService_SubmitExportWithOpenRange_ThrowBadRequest() {
+        UserExportRequestDto request = new UserExportRequestDto(UserExportDto.Format.CSV, LocalDate.of(2000, 1, 1), null);
+
+        assertThatThrownBy(() -> userExportService.submitExport(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Either both from and to or neither should be given");
+    }
+
+    private UserExportDto awaitCompletion(UUID id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            UserExportDto export = userExportService.getExport(id);
+            if (export.completedAt() != null) {
+                return export;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Export %s did not complete".formatted(id));
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.FieldValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "user.patch-coalescing.enabled=true",
+        "user.patch-coalescing.window=200ms"
+})
+public class UserPatchCoalescerTest extends UserIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserPatchCoalescer userPatchCoalescer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void UserPatchCoalescer_ConcurrentPatchesOfOneUser_ApplyEachWithOwnVersion() throws Exception {
+        UserDto user = userService.createUser(userRequest("coalesce@gmail.com"));
+        long changes = userChangeEventRepository.count();
+
+        List<Object> outcomes = patchConcurrently(user.getId(), i -> replace("address", "Street " + i));
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome).isInstanceOf(UserDto.class));
+        assertThat(outcomes).extracting(outcome -> ((UserDto) outcome).getVersion())
+                .containsExactlyInAnyOrderElementsOf(versionsAfter(user, THREADS));
+        for (int i = 0; i < THREADS; i++) {
+            assertThat(((UserDto) outcomes.get(i)).getAddress()).isEqualTo("Street " + i);
+        }
+        UserDto last = outcomes.stream().map(UserDto.class::cast)
+                .filter(outcome -> outcome.getVersion() == user.getVersion() + THREADS)
+                .findFirst().orElseThrow();
+        assertThat(userRepository.getUserById(user.getId()).getAddress()).isEqualTo(last.getAddress());
+        assertThat(userChangeEventRepository.count()).isEqualTo(changes + THREADS);
+        assertThat(meterRegistry.get("user.patch.batch.size").summary().max()).isGreaterThan(1);
+    }
+
+    @Test
+    public void UserPatchCoalescer_InvalidPatchInBatch_RejectOnlyThatPatch() throws Exception {
+        UserDto user = userService.createUser(userRequest("coalesce@gmail.com"));
+
+        List<Object> outcomes = patchConcurrently(user.getId(), i -> i == 3
+                ? replace("phoneNumber", "123")
+                : replace("address", "Street " + i));
+
+        assertThat(outcomes.get(3)).isInstanceOf(FieldValidationException.class);
+        assertThat(outcomes).filteredOn(UserDto.class::isInstance)
+                .extracting(outcome -> ((UserDto) outcome).getVersion())
+                .containsExactlyInAnyOrderElementsOf(versionsAfter(user, THREADS - 1));
+    }
+
+    @Test
+    public void UserPatchCoalescer_TakenEmailInBatch_RejectOnlyThatPatch() throws Exception {
+        userService.createUser(userRequest("taken@gmail.com"));
+        UserDto user = userService.createUser(userRequest("coalesce@gmail.com"));
+
+        List<Object> outcomes = patchConcurrently(user.getId(), i -> i == 3
+                ? replace("email", "taken@gmail.com")
+                : replace("address", "Street " + i));
+
+        assertThat((Throwable) outcomes.get(3)).isInstanceOf(BadRequestException.class)
+                .hasMessage("User with email 'taken@gmail.com' already exists");
+        assertThat(outcomes).filteredOn(UserDto.class::isInstance)
+                .extracting(outcome -> ((UserDto) outcome).getVersion())
+                .containsExactlyInAnyOrderElementsOf(versionsAfter(user, THREADS - 1));
+        assertThat(userRepository.getUserById(user.getId()).getEmail()).isEqualTo("coalesce@gmail.com");
+    }
+
+    private List<Object> patchConcurrently(Long id, IntFunction<String> patch) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            JsonPatch userPatchRequest = objectMapper.readValue(patch.apply(i), JsonPatch.class);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return userPatchCoalescer.updateUser(id, userPatchRequest, null);
+            }));
+        }
+        start.countDown();
+
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                outcomes.add(future.get());
+            } catch (ExecutionException e) {
+                outcomes.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return outcomes;
+    }
+
+    private static List<Long> versionsAfter(UserDto user, int updates) {
+        return LongStream.rangeClosed(user.getVersion() + 1, user.getVersion() + updates).boxed().toList();
+    }
+
+    private static String replace(String field, String value) {
+        return """
+                [{"op": "replace", "path": "/%s", "value": "%s"}]""".formatted(field, value);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.kazmiruk.clearsolution.service;
+
+import com.kazmiruk.clearsolution.UserIntegrationTest;
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.kazmiruk.clearsolution.UserFixtures.userRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserServiceConcurrencyTest extends UserIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void UserService_ConcurrentCreateWithSameEmail_CreateExactlyOneUser() throws Exception {
+        List<Object> outcomes = runConcurrently(() -> userService.createUser(userRequest("race@gmail.com")));
+
+        assertThat(outcomes).filteredOn(UserDto.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(BadRequestException.class::isInstance)
+                .hasSize(THREADS - 1)
+                .allSatisfy(outcome -> assertThat((BadRequestException) outcome)
+                        .hasMessage("User with email 'race@gmail.com' already exists"));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void UserService_ConcurrentUpdateToSameEmail_UpdateExactlyOneUser() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(userService.createUser(userRequest("user%d@gmail.com".formatted(i))).getId());
+        }
+        List<Long> pendingIds = new ArrayList<>(ids);
+
+        List<Object> outcomes = runConcurrently(() -> {
+            Long id;
+            synchronized (pendingIds) {
+                id = pendingIds.remove(0);
+            }
+            return userService.updateUser(id, userRequest("race@gmail.com"), null);
+        });
+
+        assertThat(outcomes).filteredOn(UserDto.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(BadRequestException.class::isInstance).hasSize(THREADS - 1);
+        assertThat(userRepository.findAllById(ids))
+                .filteredOn(user -> user.getEmail().equals("race@gmail.com"))
+                .hasSize(1);
+    }
+
+    private List<Object> runConcurrently(ThrowingSupplier task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.get();
+            }));
+        }
+        start.countDown();
+
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                outcomes.add(future.get());
+            } catch (ExecutionException e) {
+                outcomes.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return outcomes;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws Exception;
+    }
+
+}
@@ -7,27 +7,53 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.kazmiruk.clearsolution.cache.UserDtoCache;
 import com.kazmiruk.clearsolution.mapper.UserMapper;
+import com.kazmiruk.clearsolution.model.dto.CursorPageDto;
 import com.kazmiruk.clearsolution.model.dto.UserDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportReportDto;
+import com.kazmiruk.clearsolution.model.dto.UserImportResultDto;
 import com.kazmiruk.clearsolution.model.entity.User;
+import com.kazmiruk.clearsolution.model.entity.UserChangeEvent;
 import com.kazmiruk.clearsolution.model.exception.BadRequestException;
+import com.kazmiruk.clearsolution.model.exception.FieldValidationException;
+import com.kazmiruk.clearsolution.model.exception.NotFoundException;
+import com.kazmiruk.clearsolution.model.exception.PreconditionFailedException;
 import com.kazmiruk.clearsolution.model.properties.UserProperties;
 import com.kazmiruk.clearsolution.repository.UserRepository;
-import jakarta.validation.Validator;
+import com.kazmiruk.clearsolution.validation.UserValidator;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Clock;
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -52,7 +78,22 @@ public class UserServiceTest {
     private ObjectMapper objectMapper;
 
     @Mock
-    private Validator validator;
+    private UserValidator userValidator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private UserDtoCache userDtoCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private UserChangeService userChangeService;
+
+    @Spy
+    private UserAgePolicy userAgePolicy = new UserAgePolicy(adultAgeProperties(), Clock.systemDefaultZone());
 
     private UserDto userRequest;
 
@@ -91,10 +132,8 @@ public class UserServiceTest {
 
     @Test
     public void UserService_CreateUser_ReturnUserDto() {
-        when(userRepository.existsByEmail(Mockito.anyString())).thenReturn(false);
-        when(userProperties.getAge()).thenReturn(18);
         when(userMapper.toEntity(userRequest)).thenReturn(user);
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
         when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
 
         UserDto userResponse = userService.createUser(userRequest);
@@ -105,27 +144,170 @@ public class UserServiceTest {
         assertThat(userResponse.getLastName()).isEqualTo(userRequest.getLastName());
         assertThat(userResponse.getEmail()).isEqualTo(userRequest.getEmail());
         assertThat(userResponse.getDateOfBirth()).isEqualTo(userRequest.getDateOfBirth());
+        Mockito.verify(userChangeService).append(user, UserChangeEvent.Type.CREATED);
     }
 
     @Test
     public void UserService_CreateUser_ThrowEmailExistsException() {
-        when(userRepository.existsByEmail(Mockito.anyString())).thenReturn(true);
+        when(userMapper.toEntity(userRequest)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("duplicate key value violates unique constraint", "23505")
+        ));
 
         assertThatThrownBy(() -> userService.createUser(userRequest)).isInstanceOf(BadRequestException.class);
         assertThatThrownBy(() -> userService.createUser(userRequest)).hasMessage("User with email '%s' already exists".formatted(userRequest.getEmail()));
     }
 
     @Test
-    public void UserService_CreateUser_ThrowAgeMustBeEqualOrOlder() {
-        when(userProperties.getAge()).thenReturn(22);
+    public void UserService_CreateUser_RethrowOtherIntegrityViolations() {
+        DataIntegrityViolationException notNullViolation = new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("null value in column violates not-null constraint", "23502")
+        );
+        when(userMapper.toEntity(userRequest)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(notNullViolation);
 
+        assertThatThrownBy(() -> userService.createUser(userRequest)).isSameAs(notNullViolation);
+    }
+
+    @Test
+    public void UserService_UpdateUserEmail_ThrowEmailExistsException() {
+        userRequest.setEmail("taken@gmail.com");
+        when(userRepository.getUserById(1L)).thenReturn(user);
+        Mockito.doAnswer(invocation -> {
+            user.setEmail(userRequest.getEmail());
+            return null;
+        }).when(userMapper).updateEntity(user, userRequest);
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("duplicate key value violates unique constraint", "23505")
+        ));
+
+        assertThatThrownBy(() -> userService.updateUser(1L, userRequest, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("User with email 'taken@gmail.com' already exists");
+    }
+
+    @Test
+    public void UserService_CreateUser_ThrowAgeMustBeEqualOrOlder() {
         userRequest.setDateOfBirth(LocalDate.now());
         assertThatThrownBy(() -> userService.createUser(userRequest)).isInstanceOf(BadRequestException.class);
-        assertThatThrownBy(() -> userService.createUser(userRequest)).hasMessage("User must be %d years old or older".formatted(userProperties.getAge()));
+        assertThatThrownBy(() -> userService.createUser(userRequest)).hasMessage("User must be 18 years old or older");
+    }
+
+    @Test
+    public void UserService_ImportUsers_ReportEveryRow() {
+        UserDto takenEmailRequest = UserDto.builder()
+                .email("taken@gmail.com")
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .build();
+        UserDto duplicateRequest = UserDto.builder()
+                .email(userRequest.getEmail())
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .build();
+        UserProperties.BulkImport bulkImport = new UserProperties.BulkImport();
+        bulkImport.setChunkSize(2);
+
+        when(userProperties.getBulkImport()).thenReturn(bulkImport);
+        when(userValidator.validate(Mockito.any(UserDto.class))).thenReturn(Map.of());
+        when(userRepository.findExistingEmails(Mockito.anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).contains("taken@gmail.com")
+                        ? Set.of("taken@gmail.com")
+                        : Set.of()
+        );
+        when(userMapper.toEntity(userRequest)).thenReturn(user);
+        when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+
+        UserImportReportDto report = userService.importUsers(
+                Arrays.asList(userRequest, takenEmailRequest, duplicateRequest, null).iterator()
+        );
+
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.rows()).extracting(UserImportResultDto::row).containsExactly(0, 1, 2, 3);
+        assertThat(report.rows().get(0).id()).isEqualTo(user.getId());
+        assertThat(report.rows().get(1).errors()).containsEntry(
+                "email", "User with email 'taken@gmail.com' already exists"
+        );
+        assertThat(report.rows().get(2).errors()).containsEntry(
+                "email", "User with email '%s' already exists".formatted(userRequest.getEmail())
+        );
+        assertThat(report.rows().get(3).errors()).containsKey("row");
+        // the second chunk has no valid rows left, so it costs no query at all
+        Mockito.verify(userRepository, Mockito.times(1)).findExistingEmails(Mockito.anyCollection());
+    }
+
+    @Test
+    public void UserService_ImportUsersWithEmailTakenConcurrently_ImportOtherRowsOfChunk() {
+        UserDto concurrentRequest = UserDto.builder()
+                .email("concurrent@gmail.com")
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .build();
+        UserProperties.BulkImport bulkImport = new UserProperties.BulkImport();
+        bulkImport.setChunkSize(2);
+
+        when(userProperties.getBulkImport()).thenReturn(bulkImport);
+        when(userValidator.validate(Mockito.any(UserDto.class))).thenReturn(Map.of());
+        when(userRepository.findExistingEmails(Mockito.anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("concurrent@gmail.com"));
+        when(userMapper.toEntity(userRequest)).thenReturn(user);
+        when(transactionTemplate.execute(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException(
+                        "could not execute batch",
+                        new SQLException("duplicate key value violates unique constraint", "23505")
+                ))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+
+        UserImportReportDto report = userService.importUsers(List.of(userRequest, concurrentRequest).iterator());
+
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.rows().get(0).id()).isEqualTo(user.getId());
+        assertThat(report.rows().get(1).errors()).containsEntry(
+                "email", "User with email 'concurrent@gmail.com' already exists"
+        );
+    }
+
+    @Test
+    public void UserService_ImportUsersWithConflictGoneBeforeRetry_FailChunkAndForgetItsEmails() {
+        UserDto retriedRequest = UserDto.builder()
+                .email(userRequest.getEmail())
+                .dateOfBirth(userRequest.getDateOfBirth())
+                .build();
+        UserProperties.BulkImport bulkImport = new UserProperties.BulkImport();
+        bulkImport.setChunkSize(1);
+
+        when(userProperties.getBulkImport()).thenReturn(bulkImport);
+        when(userValidator.validate(Mockito.any(UserDto.class))).thenReturn(Map.of());
+        when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of());
+        when(userMapper.toEntity(retriedRequest)).thenReturn(user);
+        when(transactionTemplate.execute(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException(
+                        "could not execute batch",
+                        new SQLException("duplicate key value violates unique constraint", "23505")
+                ))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+
+        UserImportReportDto report = userService.importUsers(List.of(userRequest, retriedRequest).iterator());
+
+        assertThat(report.rows().get(0).errors()).containsEntry(
+                "email", "Row was not imported because of a concurrent email conflict, retry it"
+        );
+        // the first row was rolled back, so its email is free for the row repeating it
+        assertThat(report.rows().get(1).id()).isEqualTo(user.getId());
     }
 
     @Test
     public void UserService_GetUserById_ReturnUserDto() {
+        when(userDtoCache.get(Mockito.eq(1L), Mockito.any())).thenAnswer(invocation ->
+                invocation.<Function<Long, UserDto>>getArgument(1).apply(1L)
+        );
         when(userRepository.getUserById(1L)).thenReturn(user);
         when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
 
@@ -140,17 +322,78 @@ public class UserServiceTest {
     }
 
     @Test
-    public void UserService_GetAllUsers_ReturnUserDtos() {
-        List<User> users = List.of(user,  user, user);
-        Set<UserDto> expectedResponses = users.stream().map(userMapper::toDto).collect(Collectors.toSet());
+    public void UserService_GetAllUsers_ReturnFirstPageWithCursor() {
+        User secondUser = User.builder().id(2L).build();
+        User thirdUser = User.builder().id(3L).build();
+        UserDto secondResponse = UserDto.builder().id(2L).build();
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findAllByOrderByIdAsc(Limit.of(3))).thenReturn(List.of(user, secondUser, thirdUser));
+        when(userMapper.toDto(user)).thenReturn(userResponse);
+        when(userMapper.toDto(secondUser)).thenReturn(secondResponse);
 
-        Set<UserDto> actualResponses = userService.getAllUsers();
+        CursorPageDto<Long> actualResponse = userService.getAllUsers(null, 2);
 
-        assertThat(actualResponses).isNotEmpty();
-        assertThat(actualResponses).size().isEqualTo(expectedResponses.size());
-        assertThat(actualResponses).containsAll(expectedResponses);
+        assertThat(actualResponse.content()).containsExactly(userResponse, secondResponse);
+        assertThat(actualResponse.nextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    public void UserService_GetAllUsers_ReturnLastPageWithoutCursor() {
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findAllByIdGreaterThanOrderByIdAsc(0L, Limit.of(101))).thenReturn(List.of(user));
+        when(userMapper.toDto(user)).thenReturn(userResponse);
+
+        CursorPageDto<Long> actualResponse = userService.getAllUsers(0L, null);
+
+        assertThat(actualResponse.content()).containsExactly(userResponse);
+        assertThat(actualResponse.nextCursor()).isNull();
+    }
+
+    @Test
+    public void UserService_GetAllUsers_ThrowLimitOutOfRange() {
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+
+        assertThatThrownBy(() -> userService.getAllUsers(null, 1001))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Limit should be between 1 and 1000");
+    }
+
+    @Test
+    public void UserService_SearchUsers_EscapeWildcardsAndReturnNextPage() {
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.searchDtos("50%_off", "%50\\%\\_off%", PageRequest.of(1, 1)))
+                .thenReturn(new SliceImpl<>(List.of(userResponse), PageRequest.of(1, 1), true));
+
+        CursorPageDto<Integer> actualResponse = userService.searchUsers(" 50%_off ", 1, 1);
+
+        assertThat(actualResponse.content()).containsExactly(userResponse);
+        assertThat(actualResponse.nextCursor()).isEqualTo(2);
+    }
+
+    @Test
+    public void UserService_SearchUsersShortQuery_ThrowBadRequest() {
+        assertThatThrownBy(() -> userService.searchUsers(" ab ", null, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Search query should be at least 3 characters");
+    }
+
+    @Test
+    public void UserService_StreamAllUsers_DetachEveryStreamedUser() {
+        Session session = Mockito.mock(Session.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(userRepository.streamAll()).thenReturn(Stream.of(user, user));
+        when(userMapper.toDto(user)).thenReturn(userResponse);
+        List<UserDto> actualResponses = new ArrayList<>();
+
+        userService.streamAllUsers(actualResponses::add);
+
+        assertThat(actualResponses).containsExactly(userResponse, userResponse);
+        Mockito.verify(entityManager, Mockito.times(2)).detach(user);
+        InOrder cacheModes = Mockito.inOrder(session);
+        cacheModes.verify(session).setCacheMode(CacheMode.GET);
+        cacheModes.verify(session).setCacheMode(CacheMode.NORMAL);
     }
 
     @Test
@@ -163,7 +406,7 @@ public class UserServiceTest {
         userResponse.setAddress("Ukraine, Lviv");
         when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
 
-        UserDto actualResponse = userService.updateUser(userId, userRequest);
+        UserDto actualResponse = userService.updateUser(userId, userRequest, null);
 
         assertThat(actualResponse).isNotNull();
         assertThat(actualResponse.getId()).isNotNull();
@@ -172,6 +415,39 @@ public class UserServiceTest {
         assertThat(actualResponse.getEmail()).isEqualTo(userRequest.getEmail());
         assertThat(actualResponse.getDateOfBirth()).isEqualTo(userRequest.getDateOfBirth());
         assertThat(actualResponse.getAddress()).isEqualTo(userRequest.getAddress());
+        Mockito.verify(userDtoCache).evict(userId);
+        Mockito.verify(userChangeService).append(user, UserChangeEvent.Type.UPDATED);
+    }
+
+    @Test
+    public void UserService_UpdateUserStaleVersion_ThrowPreconditionFailed() {
+        Long userId = 1L;
+        user.setVersion(3L);
+        when(userRepository.getUserById(userId)).thenReturn(user);
+
+        assertThatThrownBy(() -> userService.updateUser(userId, userRequest, 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("User with id 1 has been modified, current version is 3");
+        Mockito.verify(userMapper, Mockito.never()).updateEntity(Mockito.any(), Mockito.any());
+        Mockito.verify(userDtoCache, Mockito.never()).evict(userId);
+    }
+
+    @Test
+    public void UserService_GetUserVersionCached_ReturnVersionWithoutQuery() {
+        userResponse.setVersion(3L);
+        when(userDtoCache.getIfPresent(1L)).thenReturn(userResponse);
+
+        assertThat(userService.getUserVersion(1L)).isEqualTo(3L);
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void UserService_GetUserVersionMissing_ThrowNotFound() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserVersion(1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id 1 not found");
     }
 
     @Test
@@ -183,10 +459,10 @@ public class UserServiceTest {
         when(userRepository.getUserById(userId)).thenReturn(user);
         when(objectMapper.treeToValue(Mockito.any(TreeNode.class), Mockito.eq(UserDto.class))).thenReturn(userResponse);
         when(patchRequest.apply(Mockito.any())).thenReturn(mock(JsonNode.class));
-        when(validator.validate(Mockito.any())).thenReturn(new HashSet<>());
+        when(userValidator.validate(Mockito.any())).thenReturn(Map.of());
         when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
 
-        UserDto actualResponse = userService.updateUser(userId, patchRequest);
+        UserDto actualResponse = userService.updateUser(userId, patchRequest, null);
 
         assertThat(actualResponse).isNotNull();
         assertThat(actualResponse.getId()).isNotNull();
@@ -197,32 +473,168 @@ public class UserServiceTest {
         assertThat(actualResponse.getAddress()).isEqualTo(user.getAddress());
     }
 
+    @Test
+    public void UserService_UpdateUserTypedPatch_SetTouchedFieldsOnEntity() throws JsonProcessingException {
+        Long userId = 1L;
+        JsonPatch patchRequest = Mockito.mock();
+        JsonNode patchTree = new ObjectMapper().readTree("""
+                [
+                  {"op": "test", "path": "/firstName", "value": "Dmytro"},
+                  {"op": "replace", "path": "/firstName", "value": "Oleh"},
+                  {"op": "add", "path": "/address", "value": "Ukraine, Lviv"},
+                  {"op": "replace", "path": "/dateOfBirth", "value": "01-02-2000"}
+                ]""");
+
+        when(userRepository.getUserById(userId)).thenReturn(user);
+        when(objectMapper.valueToTree(patchRequest)).thenReturn(patchTree);
+        when(userValidator.validateValue(Mockito.anyString(), Mockito.any())).thenReturn(null);
+        when(userMapper.toDto(user)).thenReturn(userResponse);
+
+        userService.updateUser(userId, patchRequest, null);
+
+        assertThat(user.getFirstName()).isEqualTo("Oleh");
+        assertThat(user.getAddress()).isEqualTo("Ukraine, Lviv");
+        assertThat(user.getDateOfBirth()).isEqualTo(LocalDate.of(2000, 2, 1));
+        Mockito.verify(userValidator, Mockito.never()).validate(Mockito.any());
+        Mockito.verify(userValidator).validateValue("firstName", "Oleh");
+        Mockito.verify(userValidator).validateValue("address", "Ukraine, Lviv");
+        Mockito.verify(userValidator).validateValue("dateOfBirth", LocalDate.of(2000, 2, 1));
+        Mockito.verify(objectMapper, Mockito.never()).convertValue(Mockito.any(), Mockito.eq(JsonNode.class));
+        Mockito.verify(userRepository, Mockito.never()).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    public void UserService_UpdateUserTypedPatch_ThrowFieldValidationAndKeepEntity() throws JsonProcessingException {
+        Long userId = 1L;
+        JsonPatch patchRequest = Mockito.mock();
+        JsonNode patchTree = new ObjectMapper().readTree("""
+                [{"op": "remove", "path": "/email"}]""");
+
+        when(userRepository.getUserById(userId)).thenReturn(user);
+        when(objectMapper.valueToTree(patchRequest)).thenReturn(patchTree);
+        when(userValidator.validateValue("email", null)).thenReturn("must not be empty");
+
+        assertThatThrownBy(() -> userService.updateUser(userId, patchRequest, null))
+                .isInstanceOf(FieldValidationException.class);
+        assertThat(user.getEmail()).isEqualTo(userRequest.getEmail());
+        Mockito.verify(userDtoCache, Mockito.never()).evict(userId);
+    }
+
+    @Test
+    public void UserService_UpdateUserUnsupportedPatch_FallBackToGenericPatch() throws Exception {
+        Long userId = 1L;
+        JsonPatch patchRequest = Mockito.mock();
+        JsonNode patchTree = new ObjectMapper().readTree("""
+                [{"op": "copy", "from": "/firstName", "path": "/lastName"}]""");
+
+        when(userRepository.getUserById(userId)).thenReturn(user);
+        when(objectMapper.valueToTree(patchRequest)).thenReturn(patchTree);
+        when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
+        when(objectMapper.convertValue(Mockito.any(), Mockito.eq(JsonNode.class))).thenReturn(Mockito.mock(ObjectNode.class));
+        when(patchRequest.apply(Mockito.any())).thenReturn(mock(JsonNode.class));
+        when(objectMapper.treeToValue(Mockito.any(TreeNode.class), Mockito.eq(UserDto.class))).thenReturn(userResponse);
+        when(userValidator.validate(Mockito.any())).thenReturn(Map.of());
+
+        userService.updateUser(userId, patchRequest, null);
+
+        Mockito.verify(userValidator).validate(userResponse);
+        Mockito.verify(userMapper).updateEntity(user, userResponse);
+    }
+
     @Test
     public void UserService_DeleteUser_ReturnVoid() {
         Long userId = 1L;
         when(userRepository.getUserById(userId)).thenReturn(user);
 
         assertAll(() -> userService.deleteUser(userId));
+        Mockito.verify(userDtoCache).evict(userId);
+        Mockito.verify(userChangeService).append(user, UserChangeEvent.Type.DELETED);
     }
 
     @Test
     public void UserService_GetUsersByBirthDateRange_ReturnUsers() {
-        List<User> users = List.of(user, user, user);
+        List<UserDto> users = List.of(userResponse, userResponse, userResponse);
         LocalDate from = LocalDate.parse("2004-10-05");
         LocalDate to = LocalDate.parse("2006-06-28");
 
-        when(userMapper.toDto(Mockito.any(User.class))).thenReturn(userResponse);
-        when(userRepository.findAllByDateOfBirthBetween(from, to)).thenReturn(users);
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findDtosByDateOfBirthBetween(from, to, Limit.of(101))).thenReturn(users);
 
-        List<UserDto> expectedResponses = users.stream()
-                .map(userMapper::toDto)
-                .toList();
+        CursorPageDto<String> actualResponses = userService.getUsersByBirthDateRange(from, to, null, null);
 
-        List<UserDto> actualResponses = userService.getUsersByBirthDateRange(from, to);
+        assertThat(actualResponses.content()).isNotEmpty();
+        assertThat(actualResponses.content().size()).isEqualTo(users.size());
+        assertThat(actualResponses.content()).containsAll(users);
+        assertThat(actualResponses.nextCursor()).isNull();
+    }
 
-        assertThat(actualResponses).isNotEmpty();
-        assertThat(actualResponses.size()).isEqualTo(expectedResponses.size());
-        assertThat(actualResponses).containsAll(expectedResponses);
+    @Test
+    public void UserService_GetUsersByBirthDateRange_ContinueAfterCursor() {
+        UserDto nextResponse = UserDto.builder().id(7L).dateOfBirth(LocalDate.of(2005, 1, 2)).build();
+        LocalDate from = LocalDate.parse("2004-10-05");
+        LocalDate to = LocalDate.parse("2006-06-28");
+
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findDtosByDateOfBirthBetweenAfter(from, to, LocalDate.of(2004, 10, 5), 1L, Limit.of(2)))
+                .thenReturn(List.of(nextResponse, userResponse));
+
+        CursorPageDto<String> actualResponses = userService.getUsersByBirthDateRange(from, to, "05-10-2004:1", 1);
+
+        assertThat(actualResponses.content()).containsExactly(nextResponse);
+        assertThat(actualResponses.nextCursor()).isEqualTo("02-01-2005:7");
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthdayWindowAcrossNewYear_ReadBothRanges() {
+        UserDto december = UserDto.builder().id(3L).dateOfBirth(LocalDate.of(1990, 12, 31)).build();
+        UserDto january = UserDto.builder().id(2L).dateOfBirth(LocalDate.of(1995, 1, 1)).build();
+        UserDto nextJanuary = UserDto.builder().id(9L).dateOfBirth(LocalDate.of(1980, 1, 2)).build();
+
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findDtosByBirthdayBetween(1230, 1231, Long.MIN_VALUE, Limit.of(3)))
+                .thenReturn(List.of(december));
+        when(userRepository.findDtosByBirthdayBetween(101, 102, Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(january, nextJanuary));
+
+        CursorPageDto<String> actualResponses = userService.getUsersByBirthdayWindow(
+                LocalDate.of(2026, 12, 30), 4, null, null, 2
+        );
+
+        assertThat(actualResponses.content()).containsExactly(december, january);
+        assertThat(actualResponses.nextCursor()).isEqualTo("01-01:2");
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthdayWindow_ContinueAfterCursorInNewYear() {
+        UserDto january = UserDto.builder().id(9L).dateOfBirth(LocalDate.of(1980, 1, 2)).build();
+
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+        when(userRepository.findDtosByBirthdayBetween(101, 102, 2L, Limit.of(101))).thenReturn(List.of(january));
+
+        CursorPageDto<String> actualResponses = userService.getUsersByBirthdayWindow(
+                LocalDate.of(2026, 12, 30), 4, null, "01-01:2", null
+        );
+
+        assertThat(actualResponses.content()).containsExactly(january);
+        assertThat(actualResponses.nextCursor()).isNull();
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthdayWindowTooLong_ThrowBadRequest() {
+        assertThatThrownBy(() -> userService.getUsersByBirthdayWindow(LocalDate.of(2026, 1, 1), 366, null, null, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Days should be between 1 and 365");
+    }
+
+    @Test
+    public void UserService_GetUsersByBirthDateRange_ThrowMalformedCursor() {
+        LocalDate from = LocalDate.parse("2004-10-05");
+        LocalDate to = LocalDate.parse("2006-06-28");
+        when(userProperties.getPage()).thenReturn(new UserProperties.Page());
+
+        assertThatThrownBy(() -> userService.getUsersByBirthDateRange(from, to, "2004-10-05", null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cursor '2004-10-05' is malformed");
     }
 
     @Test
@@ -230,8 +642,14 @@ public class UserServiceTest {
         LocalDate from = LocalDate.parse("2004-10-05");
         LocalDate to = LocalDate.parse("2006-06-28");
 
-        assertThatThrownBy(() -> userService.getUsersByBirthDateRange(to, from)).hasMessage("Date FROM ('%s') should be before date TO ('%s')".formatted(to, from));
-        assertThatThrownBy(() -> userService.getUsersByBirthDateRange(to, from)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> userService.getUsersByBirthDateRange(to, from, null, null)).hasMessage("Date FROM ('%s') should be before date TO ('%s')".formatted(to, from));
+        assertThatThrownBy(() -> userService.getUsersByBirthDateRange(to, from, null, null)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static UserProperties adultAgeProperties() {
+        UserProperties properties = new UserProperties();
+        properties.setAge(18);
+        return properties;
     }
 
 }
@@ -0,0 +1,145 @@
+package com.kazmiruk.clearsolution.validation;
+
+import com.kazmiruk.clearsolution.model.dto.UserDto;
+import jakarta.validation.Configuration;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.beanvalidation.LocaleContextMessageInterpolator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class FastUserValidatorTest {
+
+    private static final List<String> EMAILS = List.of(
+            "dima.kazmiruk.05@gmail.com", "a@b", "A+b-c_d'e/f=g?h^i`j{k|l}m~n#o$p%q&r*s!@x.y", "first.last@sub.gmail.com",
+            "x@a-b.com", "x@a--b.com", "x@-ab.com", "x@ab-.com", "x@ab.com-", "x@ab.", "x@.ab", "x@a..b", "x@", "@gmail.com",
+            ".x@gmail.com", "x.@gmail.com", "x..y@gmail.com", "x y@gmail.com", "x@gma il.com", "x@gmail_!#.com",
+            "x@y@gmail.com", "plain", "x@gmail.com.", "x(y)@gmail.com", "x@[127.0.0.1]", "x@[IPv6:::1]", "\"x y\"@gmail.com",
+            "\"x@y\"@gmail.com", "дмитро@пошта.укр", "x@пошта.укр", "ü@gmail.com",
+            "a".repeat(64) + "@gmail.com", "a".repeat(65) + "@gmail.com",
+            "x@" + "a".repeat(63) + ".com", "x@" + "a".repeat(64) + ".com",
+            "x@" + ("a".repeat(63) + ".").repeat(3) + "a".repeat(63), "x@" + ("a".repeat(63) + ".").repeat(4) + "a",
+            "", " "
+    );
+
+    private static final List<String> NAMES = Arrays.asList(
+            null, "", "D", "Dm", "Dmytro", "a".repeat(50), "a".repeat(51), "  "
+    );
+
+    private static final List<String> PHONE_NUMBERS = Arrays.asList(
+            null, "", "0501234567", "050123456", "05012345678", "1501234567", "050123456a", "050123456٣", " 0501234567"
+    );
+
+    private static ValidatorFactory validatorFactory;
+
+    private static BeanUserValidator beanUserValidator;
+
+    private static FastUserValidator fastUserValidator;
+
+    @BeforeAll
+    public static void init() {
+        // interpolates in the locale of LocaleContextHolder, as the validator Spring configures does
+        Configuration<?> configuration = Validation.byDefaultProvider().configure();
+        validatorFactory = configuration
+                .messageInterpolator(new LocaleContextMessageInterpolator(configuration.getDefaultMessageInterpolator()))
+                .buildValidatorFactory();
+        beanUserValidator = new BeanUserValidator(validatorFactory.getValidator());
+        fastUserValidator = new FastUserValidator(validatorFactory.getValidator());
+    }
+
+    @AfterAll
+    public static void close() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void FastUserValidator_ValidateUsers_ReturnSameErrorsAsBeanValidation() {
+        List<UserDto> users = new ArrayList<>();
+        List<String> emails = new ArrayList<>(EMAILS);
+        emails.add(null);
+        emails.forEach(email -> users.add(user(email, "Dmytro", "0501234567", LocalDate.of(2000, 1, 1))));
+        NAMES.forEach(name -> users.add(user("x@gmail.com", name, null, LocalDate.of(2000, 1, 1))));
+        PHONE_NUMBERS.forEach(phoneNumber -> users.add(user("x@gmail.com", "Dmytro", phoneNumber, null)));
+        users.add(user("not-an-email", "D", "12345", null));
+
+        assertAll(users.stream().map(user -> () -> assertThat(fastUserValidator.validate(user))
+                .as("email %s, first name %s, phone number %s", user.getEmail(), user.getFirstName(), user.getPhoneNumber())
+                .isEqualTo(beanUserValidator.validate(user))));
+    }
+
+    @Test
+    public void FastUserValidator_ValidateValues_ReturnSameMessageAsBeanValidation() {
+        List<Executable> checks = new ArrayList<>();
+        EMAILS.forEach(email -> checks.add(() -> assertSameMessage("email", email)));
+        NAMES.forEach(name -> checks.add(() -> assertSameMessage("lastName", name)));
+        PHONE_NUMBERS.forEach(phoneNumber -> checks.add(() -> assertSameMessage("phoneNumber", phoneNumber)));
+        checks.add(() -> assertSameMessage("dateOfBirth", null));
+        checks.add(() -> assertSameMessage("address", null));
+
+        assertAll(checks);
+    }
+
+    @Test
+    public void FastUserValidator_ValidateInOtherLocale_ReturnMessagesOfThatLocale() {
+        UserDto user = user("", "D", "12345", null);
+        LocaleContextHolder.setLocale(Locale.ENGLISH);
+        try {
+            Map<String, String> english = fastUserValidator.validate(user);
+            LocaleContextHolder.setLocale(Locale.GERMAN);
+            Map<String, String> german = fastUserValidator.validate(user);
+
+            assertThat(german).isEqualTo(beanUserValidator.validate(user));
+            assertThat(german).hasSameSizeAs(english)
+                    .allSatisfy((property, message) -> assertThat(message).isNotEqualTo(english.get(property)));
+            LocaleContextHolder.setLocale(Locale.ENGLISH);
+            assertThat(fastUserValidator.validate(user)).isEqualTo(english);
+        } finally {
+            LocaleContextHolder.resetLocaleContext();
+        }
+    }
+
+    @Test
+    public void FastUserValidator_ValidateValidUser_ReturnSharedEmptyErrors() {
+        UserDto user = user("dima.kazmiruk.05@gmail.com", "Dmytro", "0501234567", LocalDate.of(2004, 10, 5));
+
+        assertThat(fastUserValidator.validate(user)).isEmpty();
+        assertThat(fastUserValidator.validate(user)).isSameAs(fastUserValidator.validate(user));
+    }
+
+    @Test
+    public void FastUserValidator_ValidateUnknownProperty_ThrowIllegalArgument() {
+        assertThatThrownBy(() -> fastUserValidator.validateValue("nickname", "x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertSameMessage(String property, Object value) {
+        assertThat(fastUserValidator.validateValue(property, value))
+                .as("%s %s", property, value)
+                .isEqualTo(beanUserValidator.validateValue(property, value));
+    }
+
+    private static UserDto user(String email, String firstName, String phoneNumber, LocalDate dateOfBirth) {
+        return UserDto.builder()
+                .email(email)
+                .firstName(firstName)
+                .lastName("Kazmiruk")
+                .dateOfBirth(dateOfBirth)
+                .phoneNumber(phoneNumber)
+                .build();
+    }
+
+}
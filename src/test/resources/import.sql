@@ -0,0 +1,3 @@
+-- What the Flyway migrations create beyond the mapping, for the schema ddl-auto creates in tests
+create sequence user_change_events_seq start with 1 increment by 1;
+insert into user_change_feed (id) values (1);